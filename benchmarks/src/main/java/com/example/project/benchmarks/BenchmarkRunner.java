@@ -0,0 +1,46 @@
+package com.example.project.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+
+// Main class of benchmarks.jar. Accepts the usual JMH command line, but unless -rf / -rff are given
+// it writes the results as JSON to films.bench.resultsDir (default jmh-results/), one timestamped file
+// per run, so runs can be compared later, e.g. with https://jmh.morethan.io
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() { }
+
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+                || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            Path dir = Path.of(System.getProperty("films.bench.resultsDir", "jmh-results"));
+            Files.createDirectories(dir);
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            options.result(dir.resolve("films-" + timestamp + ".json").toString());
+        }
+
+        new Runner(options.build()).run();
+    }
+}
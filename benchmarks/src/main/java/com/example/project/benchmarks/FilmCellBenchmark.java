@@ -0,0 +1,105 @@
+package com.example.project.benchmarks;
+
+import com.example.project.models.Film;
+import com.example.project.models.ObservableFilm;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.value.ObservableValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+// What the film table's cell value factories cost while scrolling. Every time a cell shows a row the
+// TableView asks its column for the row's ObservableValue and reads it. The old factories wrapped each
+// value in a new Simple*Property, ObservableFilm hands out the film's own properties instead.
+// One operation fills a viewport of 'visibleRows' rows x 4 columns and then scrolls it by that much.
+// Run with -prof gc: gc.alloc.rate.norm is the garbage made per viewport.
+//   java -jar benchmarks/target/benchmarks.jar FilmCell -prof gc
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FilmCellBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"40"})
+    public int visibleRows;
+
+    private List<Film> films;
+    private List<ObservableFilm> observableFilms;
+    private int top;
+
+
+    @Setup
+    public void createFilms() {
+        films = new ArrayList<>(rows);
+        for (int id = 1; id <= rows; id++) {
+            films.add(FilmDatabase.filmFor(id));
+        }
+        observableFilms = ObservableFilm.ofAll(films);
+    }
+
+
+    // The cell value factories as FilmController had them
+    @Benchmark
+    public void perCellProperties(Blackhole blackhole) {
+        int first = scroll();
+        for (int row = first; row < first + visibleRows; row++) {
+            Film film = films.get(row);
+            show(blackhole, new SimpleStringProperty(film.getTitle()));
+            show(blackhole, new SimpleStringProperty(film.getGenre()));
+            show(blackhole, new SimpleIntegerProperty(film.getYear()).asObject());
+            show(blackhole, new SimpleBooleanProperty(film.isWatched()));
+        }
+    }
+
+
+    // The cell value factories bound to ObservableFilm
+    @Benchmark
+    public void boundProperties(Blackhole blackhole) {
+        int first = scroll();
+        for (int row = first; row < first + visibleRows; row++) {
+            ObservableFilm film = observableFilms.get(row);
+            show(blackhole, film.titleProperty());
+            show(blackhole, film.genreProperty());
+            show(blackhole, film.yearProperty());
+            show(blackhole, film.watchedProperty());
+        }
+    }
+
+
+    // First row of the next viewport, back to the top after the last one
+    private int scroll() {
+        int first = top;
+        top += visibleRows;
+        if (top + visibleRows > rows) {
+            top = 0;
+        }
+        return first;
+    }
+
+
+    private static void show(Blackhole blackhole, ObservableValue<?> value) {
+        blackhole.consume(value);
+        blackhole.consume(value.getValue());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.project.benchmarks;
+
+import com.example.project.data.FilmColumnStore;
+import com.example.project.data.FilmFilter;
+import com.example.project.models.Film;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+
+// Filtering, sorting and counting one user's loaded collection in memory: a List<Film> walked with
+// streams against the primitive columns of a FilmColumnStore. The filter keeps two genres out of
+// twelve within a range of years and sorts them by year descending, then title.
+// 'countGenre' counts the films of two genres, nothing else, which the store answers from its genre
+// bitmaps alone. FilmStoreFootprint measures the heap side of the same comparison.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class FilmColumnStoreBenchmark {
+
+    private static final FilmFilter FILTER = new FilmFilter(Set.of("drama", "Comedy"), 1950, 2010, null, List.of(
+            new FilmFilter.SortKey(FilmFilter.Column.YEAR, false),
+            new FilmFilter.SortKey(FilmFilter.Column.TITLE, true)));
+
+    private static final FilmFilter GENRES_ONLY = new FilmFilter(Set.of("drama", "Comedy"), null, null, null, List.of());
+
+    private static final Comparator<Film> FILTER_ORDER = Comparator.comparingInt(Film::getYear).reversed()
+            .thenComparing(Film::getTitle)
+            .thenComparingInt(Film::getId);
+
+    @Param({"1000000"})
+    public int rows;
+
+    private List<Film> films;
+    private FilmColumnStore store;
+
+
+    @Setup
+    public void load() {
+        films = new ArrayList<>(rows);
+        for (int id = 1; id <= rows; id++) {
+            Film film = FilmDatabase.filmFor(id);
+            films.add(new Film(id, film.getTitle(), new String(film.getGenre()), film.getYear(), film.isWatched()));
+        }
+        store = FilmColumnStore.of(1, films);
+    }
+
+
+    @Benchmark
+    public List<Film> filterAndSortFilms() {
+        return films.stream().filter(FilmColumnStoreBenchmark::matches).sorted(FILTER_ORDER).toList();
+    }
+
+
+    // Includes creating the Films for the result, as the film screen needs them
+    @Benchmark
+    public List<Film> filterAndSortStore() {
+        return store.films(store.select(FILTER));
+    }
+
+
+    @Benchmark
+    public long countFilms() {
+        return films.stream().filter(FilmColumnStoreBenchmark::matches).count();
+    }
+
+
+    @Benchmark
+    public int countStore() {
+        return store.count(FILTER);
+    }
+
+
+    @Benchmark
+    public long countGenreFilms() {
+        return films.stream().filter(FilmColumnStoreBenchmark::hasGenre).count();
+    }
+
+
+    @Benchmark
+    public int countGenreStore() {
+        return store.count(GENRES_ONLY);
+    }
+
+
+    private static boolean hasGenre(Film film) {
+        return film.getGenre().equalsIgnoreCase("drama") || film.getGenre().equalsIgnoreCase("comedy");
+    }
+
+
+    private static boolean matches(Film film) {
+        return hasGenre(film) && film.getYear() >= 1950 && film.getYear() <= 2010;
+    }
+}
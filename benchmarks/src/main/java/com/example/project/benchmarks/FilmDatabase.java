@@ -0,0 +1,195 @@
+package com.example.project.benchmarks;
+
+import com.example.project.data.DatabaseManager;
+import com.example.project.data.FilmRepository;
+import com.example.project.data.UserRepository;
+import com.example.project.models.Film;
+import com.example.project.models.User;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+
+// A films.db with 'rows' films spread over many users, opened through DatabaseManager with either
+// SQLite's default settings or the tuned ones (WAL, synchronous = NORMAL, larger cache, ...).
+//
+// Generating a million rows takes a while, so every dataset is kept in films.bench.dataDir
+// (default target/bench-data) and reused by later runs. Film n belongs to user (n - 1) % users + 1,
+// so a user's films are spread over the whole table like in a database that grew over time.
+@State(Scope.Benchmark)
+public class FilmDatabase {
+
+    static final int FILMS_PER_USER = 200;
+
+    private static final String[] GENRES = {
+            "Drama", "Comedy", "Action", "Thriller", "Horror", "Romance",
+            "Sci-Fi", "Animation", "Documentary", "Crime", "Fantasy", "Western"
+    };
+    private static final String[] TITLE_WORDS = {
+            "Night", "River", "Last", "Silent", "Golden", "City", "Dark", "Summer",
+            "Road", "Star", "Winter", "Blue", "Lost", "House", "Storm", "Garden"
+    };
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    // "default" runs with -Dfilms.db.tuning=false, "tuned" with the settings DatabaseManager applies normally
+    @Param({"default", "tuned"})
+    public String settings;
+
+    int users;
+    int lastGeneratedId; // Rows above this id were added by a benchmark and are removed after every iteration
+
+
+    @Setup(Level.Trial)
+    public void open() throws Exception {
+        Path dir = Path.of(System.getProperty("films.bench.dataDir", "target/bench-data"));
+        Files.createDirectories(dir);
+        // Separate files per setting: journal_mode = WAL is stored in the database file itself
+        Path file = dir.resolve("films-" + rows + "-" + settings + ".db").toAbsolutePath();
+        String url = "jdbc:sqlite:" + file;
+
+        users = Math.max(1, rows / FILMS_PER_USER);
+
+        if (Files.exists(file) && countFilms(url) != rows) {
+            deleteDatabase(file); // Left over from an interrupted generation
+        }
+
+        // DatabaseManager reads both properties once, when it is first used. This works because JMH runs
+        // every parameter combination in its own forked JVM, so benchmarks must never use @Fork(0).
+        System.setProperty("films.db.url", url);
+        System.setProperty("films.db.tuning", String.valueOf(settings.equals("tuned")));
+        DatabaseManager.initialize();
+
+        if (countFilms(url) == 0) {
+            populate();
+        }
+        lastGeneratedId = rows;
+    }
+
+
+    @TearDown(Level.Iteration)
+    public void removeAddedFilms() throws SQLException {
+        DatabaseManager.write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM films WHERE id > ?")) {
+                pstmt.setInt(1, lastGeneratedId);
+                return pstmt.executeUpdate();
+            }
+        });
+    }
+
+
+    @TearDown(Level.Trial)
+    public void close() {
+        DatabaseManager.shutdown();
+    }
+
+
+    int randomUserId() {
+        return ThreadLocalRandom.current().nextInt(users) + 1;
+    }
+
+
+    int randomFilmId() {
+        return ThreadLocalRandom.current().nextInt(rows) + 1;
+    }
+
+
+    int ownerOf(int filmId) {
+        return (filmId - 1) % users + 1;
+    }
+
+
+    // The generated values are a function of the id, so benchmarks never have to read a row back first
+    static Film filmFor(int id) {
+        String title = TITLE_WORDS[id % TITLE_WORDS.length] + " " + TITLE_WORDS[(id / 7) % TITLE_WORDS.length] + " " + id;
+        return new Film(id, title, GENRES[(id / 3) % GENRES.length], 1920 + id % 105, id % 3 == 0);
+    }
+
+
+    static String usernameOf(int userId) {
+        return "user" + userId;
+    }
+
+
+    static String passwordOf(int userId) {
+        return "password" + userId;
+    }
+
+
+    private void populate() throws SQLException {
+        System.out.println("Generating " + rows + " films for " + users + " users...");
+        long start = System.nanoTime();
+
+        // A new database, so the users get ids 1..users in this order
+        List<User> accounts = new ArrayList<>(users);
+        for (int userId = 1; userId <= users; userId++) {
+            accounts.add(new User(userId, usernameOf(userId), passwordOf(userId)));
+        }
+        UserRepository.insertAll(accounts);
+
+        // Explicit ids and a different owner on every row, which FilmRepository's per-user batches do not cover
+        FilmRepository.inTransaction(conn -> {
+            String sql = "INSERT INTO films (id, title, genre, year, watched, user_id) VALUES (?, ?, ?, ?, ?, ?)";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int id = 1; id <= rows; id++) {
+                    Film film = filmFor(id);
+                    pstmt.setInt(1, id);
+                    pstmt.setString(2, film.getTitle());
+                    pstmt.setString(3, film.getGenre());
+                    pstmt.setInt(4, film.getYear());
+                    pstmt.setInt(5, film.isWatched() ? 1 : 0);
+                    pstmt.setInt(6, ownerOf(id));
+                    pstmt.addBatch();
+
+                    if (id % 10_000 == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+                pstmt.executeBatch();
+            }
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ANALYZE"); // Statistics for the real data, not the empty tables of the migration
+            }
+            return null;
+        });
+
+        System.out.printf("Generated in %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+
+
+    // Opened directly, DatabaseManager must not be touched before the properties are set
+    private static long countFilms(String url) {
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM films")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            return 0; // No films table yet
+        }
+    }
+
+
+    private static void deleteDatabase(Path file) throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(Path.of(file + "-wal"));
+        Files.deleteIfExists(Path.of(file + "-shm"));
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.project.benchmarks;
+
+import com.example.project.models.Film;
+import com.example.project.models.FilmListMerge;
+import com.example.project.models.ObservableFilm;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+// Applying a reload result to the film list: setAll() as before, against FilmListMerge. The list
+// alternates between two results 'changes' rows apart (edited, deleted and inserted films in turn),
+// the way a reload after a few writes looks. The list has FilmController's listener, which moves a
+// watched listener from every removed film to every added one. 'rowsTouched' (printed per iteration)
+// is what list listeners, the TableView among them, are told about per operation: removed plus added rows.
+// The TableView's own work (rebuilding cells, resetting selection) needs a toolkit and is not included.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FilmListMergeBenchmark {
+
+    @Param({"50000"})
+    public int rows;
+
+    @Param({"1", "5", "50"})
+    public int changes;
+
+    private List<Film> before;
+    private List<Film> after;
+    private final ObservableList<ObservableFilm> list = FXCollections.observableArrayList();
+    private boolean showingAfter;
+    private List<ObservableFilm> incoming;
+    private long rowsTouched;
+    private long operations;
+
+
+    @Setup
+    public void createResults() {
+        before = new ArrayList<>(rows);
+        for (int id = 1; id <= rows; id++) {
+            before.add(FilmDatabase.filmFor(id));
+        }
+
+        after = new ArrayList<>(before);
+        int step = rows / (changes + 1);
+        for (int change = 0; change < changes; change++) {
+            int index = (change + 1) * step;
+            Film film = after.get(index);
+            switch (change % 3) {
+                case 0 -> after.set(index, new Film(film.getId(), film.getTitle() + " (edited)", film.getGenre(), film.getYear(), !film.isWatched()));
+                case 1 -> after.remove(index);
+                default -> after.add(index, FilmDatabase.filmFor(rows + 1 + change));
+            }
+        }
+
+        ChangeListener<Boolean> watchedListener = (obs, wasWatched, isWatched) -> { };
+        list.addListener((ListChangeListener<ObservableFilm>) change -> {
+            while (change.next()) {
+                for (ObservableFilm film : change.getRemoved()) {
+                    film.watchedProperty().removeListener(watchedListener);
+                }
+                for (ObservableFilm film : change.getAddedSubList()) {
+                    film.watchedProperty().addListener(watchedListener);
+                }
+                rowsTouched += change.getRemovedSize() + change.getAddedSize();
+            }
+        });
+        list.setAll(ObservableFilm.ofAll(before));
+    }
+
+
+    // A reload task hands over new ObservableFilms; making them is not part of applying them
+    @Setup(Level.Invocation)
+    public void nextResult() {
+        showingAfter = !showingAfter;
+        incoming = ObservableFilm.ofAll(showingAfter ? after : before);
+        operations++;
+    }
+
+
+    @Benchmark
+    public int setAll() {
+        list.setAll(incoming);
+        return list.size();
+    }
+
+
+    @Benchmark
+    public int merge() {
+        if (!FilmListMerge.apply(list, incoming)) {
+            list.setAll(incoming);
+        }
+        return list.size();
+    }
+
+
+    @Setup(Level.Iteration)
+    public void resetCounts() {
+        rowsTouched = 0;
+        operations = 0;
+    }
+
+
+    @TearDown(Level.Iteration)
+    public void reportRowsTouched() {
+        System.out.printf("  rowsTouched/op: %d%n", operations == 0 ? 0 : rowsTouched / operations);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.project.benchmarks;
+
+import com.example.project.data.FilmFilter;
+import com.example.project.data.FilmPager;
+import com.example.project.data.FilmRepository;
+import com.example.project.data.UserRepository;
+import com.example.project.models.Film;
+import com.example.project.models.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+
+// The repository calls behind the application's everyday operations, through the same pooled connections
+// and cached statements the controllers use, so a change to DatabaseManager or to the SQL shows up here.
+// Add -jvmArgsAppend -Dfilms.db.pool.statementCacheSize=0 to measure without the statement cache.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmPersistenceBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+
+    @Benchmark
+    public int insertFilm(FilmDatabase db) throws SQLException {
+        return FilmRepository.insert(db.randomUserId(), FilmDatabase.filmFor(db.randomFilmId()));
+    }
+
+
+    // BATCH_SIZE films in one transaction, as an import chunk writes them
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void insertFilmBatch(FilmDatabase db) throws SQLException {
+        List<Film> films = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            films.add(FilmDatabase.filmFor(db.randomFilmId()));
+        }
+        FilmRepository.insertAll(db.randomUserId(), films);
+    }
+
+
+    // What the non-paged film table loads after login (about FILMS_PER_USER rows)
+    @Benchmark
+    public List<Film> loadUserFilms(FilmDatabase db) throws SQLException {
+        return FilmPager.all(db.randomUserId(), FilmFilter.NONE);
+    }
+
+
+    // A watched checkbox click as FilmWriteQueue writes it: the whole row, with 'watched' flipped
+    @Benchmark
+    public boolean updateWatched(FilmDatabase db) throws SQLException {
+        int filmId = db.randomFilmId();
+        Film film = FilmDatabase.filmFor(filmId);
+        film.setWatched(ThreadLocalRandom.current().nextBoolean());
+        return FilmRepository.update(db.ownerOf(filmId), film);
+    }
+
+
+    @Benchmark
+    public boolean deleteFilm(DeletableFilm film) throws SQLException {
+        return FilmRepository.delete(film.userId, film.id);
+    }
+
+
+    // The database half of a login; the password hash is measured by PasswordHashBenchmark
+    @Benchmark
+    public User loginLookup(FilmDatabase db) throws SQLException {
+        return UserRepository.findByUsername(FilmDatabase.usernameOf(db.randomUserId()));
+    }
+
+
+    // A fresh film for every deleteFilm call, so deleting never runs out of rows or shrinks the dataset.
+    // Level.Invocation fixtures cost some timer overhead, which is small next to a committed DELETE.
+    @State(Scope.Thread)
+    public static class DeletableFilm {
+        int id;
+        int userId;
+
+        @Setup(Level.Invocation)
+        public void insert(FilmDatabase db) throws SQLException {
+            userId = db.randomUserId();
+            id = FilmRepository.insert(userId, FilmDatabase.filmFor(db.randomFilmId()));
+        }
+    }
+}
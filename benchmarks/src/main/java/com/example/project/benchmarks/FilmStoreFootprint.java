@@ -0,0 +1,61 @@
+package com.example.project.benchmarks;
+
+import com.example.project.data.FilmColumnStore;
+import com.example.project.models.Film;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+
+// Heap taken by one user's collection held as Film objects (what FilmPager.all returns) and as a
+// FilmColumnStore, at a million films by default:
+//   java -Xmx2g -cp benchmarks/target/benchmarks.jar com.example.project.benchmarks.FilmStoreFootprint [rows]
+// The Films are made the way the JDBC driver makes them, with a new String for every title and genre.
+public final class FilmStoreFootprint {
+
+    private static final int DEFAULT_ROWS = 1_000_000;
+
+
+    private FilmStoreFootprint() { }
+
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+
+        long empty = usedHeap();
+        List<Film> films = readLikeJdbc(rows);
+        long withFilms = usedHeap();
+
+        FilmColumnStore store = FilmColumnStore.of(1, films);
+        films = null; // Only the store is left
+        long withStore = usedHeap();
+
+        long filmBytes = withFilms - empty;
+        long storeBytes = withStore - empty;
+        System.out.printf("Rows:              %,d (%d genres)%n", store.size(), store.getGenreCount());
+        System.out.printf("List<Film>:        %,d KB (%.1f bytes per film)%n", filmBytes / 1024, (double) filmBytes / rows);
+        System.out.printf("FilmColumnStore:   %,d KB (%.1f bytes per film)%n", storeBytes / 1024, (double) storeBytes / rows);
+        System.out.printf("Saved:             %.0f%%%n", 100.0 * (filmBytes - storeBytes) / filmBytes);
+    }
+
+
+    private static List<Film> readLikeJdbc(int rows) {
+        List<Film> films = new ArrayList<>(rows);
+        for (int id = 1; id <= rows; id++) {
+            Film film = FilmDatabase.filmFor(id);
+            films.add(new Film(id, new String(film.getTitle()), new String(film.getGenre()), film.getYear(), film.isWatched()));
+        }
+        return films;
+    }
+
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.project.benchmarks;
+
+import com.example.project.services.PasswordHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+// Cost of the password hash at a few work factors. verify is what every login pays, hash is what
+// registration and the upgrade of an old row pay on top. WorkFactorCalibrator turns this into a setting.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"100000", "310000", "600000", "1000000"})
+    public int iterations;
+
+    private String stored;
+
+
+    @Setup
+    public void hashOnce() {
+        stored = PasswordHasher.hash(PASSWORD, iterations);
+    }
+
+
+    @Benchmark
+    public String hash() {
+        return PasswordHasher.hash(PASSWORD, iterations);
+    }
+
+
+    @Benchmark
+    public boolean verify() {
+        return PasswordHasher.verify(PASSWORD, stored);
+    }
+}
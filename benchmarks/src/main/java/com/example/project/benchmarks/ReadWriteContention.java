@@ -0,0 +1,145 @@
+package com.example.project.benchmarks;
+
+import com.example.project.data.DatabaseManager;
+import com.example.project.data.DatabaseWriter;
+import com.example.project.data.FilmFilter;
+import com.example.project.data.FilmPager;
+import com.example.project.data.FilmRepository;
+import com.example.project.models.Film;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+// Film reloads while films are being written, on a FilmDatabase dataset:
+//   java -cp benchmarks/target/benchmarks.jar com.example.project.benchmarks.ReadWriteContention [rows] [tuned|default] [seconds]
+// Reader threads reload random users' films in a loop, like the film screen does. Meanwhile one thread
+// saves single films (edits) and one writes 1000-film transactions (an import). Prints the reload
+// latencies, how many operations failed (e.g. SQLITE_BUSY) and the contention counters of DatabaseManager.
+public final class ReadWriteContention {
+
+    private static final int READERS = 2;
+    private static final int BATCH_SIZE = 1000;
+
+
+    private ReadWriteContention() { }
+
+
+    public static void main(String[] args) throws Exception {
+        FilmDatabase database = new FilmDatabase();
+        database.rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        database.settings = args.length > 1 ? args[1] : "tuned";
+        long seconds = args.length > 2 ? Long.parseLong(args[2]) : 10;
+        database.open();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong failures = new AtomicLong();
+        AtomicLong edits = new AtomicLong();
+        AtomicLong batches = new AtomicLong();
+        List<long[]> readerLatencies = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < READERS; i++) {
+            long[] latencies = new long[1 << 20];
+            long[] count = new long[1];
+            readerLatencies.add(latencies);
+            threads.add(new Thread(() -> {
+                while (running.get()) {
+                    long start = System.nanoTime();
+                    if (!run(failures, () -> FilmPager.all(database.randomUserId(), FilmFilter.NONE))) {
+                        continue;
+                    }
+                    if (count[0] < latencies.length - 1) {
+                        latencies[(int) ++count[0]] = System.nanoTime() - start;
+                    }
+                }
+                latencies[0] = count[0]; // Slot 0 holds the number of samples
+            }, "reader-" + i));
+        }
+
+        threads.add(new Thread(() -> {
+            while (running.get()) {
+                int filmId = database.randomFilmId();
+                if (run(failures, () -> FilmRepository.update(database.ownerOf(filmId), edited(filmId)))) {
+                    edits.incrementAndGet();
+                }
+            }
+        }, "editor"));
+
+        threads.add(new Thread(() -> {
+            while (running.get()) {
+                int userId = database.randomUserId();
+                List<Film> films = new ArrayList<>(BATCH_SIZE);
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    films.add(FilmDatabase.filmFor(database.lastGeneratedId + 1));
+                }
+                if (run(failures, () -> FilmRepository.insertAll(userId, films))) {
+                    batches.incrementAndGet();
+                }
+            }
+        }, "importer"));
+
+        threads.forEach(Thread::start);
+        Thread.sleep(seconds * 1000);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] all = readerLatencies.stream()
+                .flatMapToLong(latencies -> Arrays.stream(latencies, 1, (int) latencies[0] + 1))
+                .sorted()
+                .toArray();
+        System.out.printf("Settings:          %s, %,d films, %d s%n", database.settings, database.rows, seconds);
+        System.out.printf("Reloads:           %,d (%.0f/s)%n", all.length, all.length / (double) seconds);
+        if (all.length > 0) {
+            System.out.printf("Reload latency:    p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    all[all.length / 2] / 1e6, all[(int) (all.length * 0.99)] / 1e6, all[all.length - 1] / 1e6);
+        }
+        System.out.printf("Edits:             %,d%n", edits.get());
+        System.out.printf("Import batches:    %,d x %d films%n", batches.get(), BATCH_SIZE);
+        System.out.printf("Failed operations: %,d%n", failures.get());
+
+        DatabaseWriter writer = DatabaseManager.getWriterIfOpen();
+        if (writer != null) {
+            System.out.printf("Writer queue wait: %,d ms in total, %,d ms at most%n", writer.getQueueWaitMillis(), writer.getMaxQueueWaitMillis());
+        }
+        System.out.printf("Lock waits:        %,d by readers, %,d by the writer, %,d ms, %,d timeouts%n",
+                DatabaseManager.getReadLockWaits(), DatabaseManager.getWriteLockWaits(),
+                DatabaseManager.getLockWaitMillis(), DatabaseManager.getLockTimeouts());
+
+        database.removeAddedFilms();
+        database.close();
+    }
+
+
+    private static Film edited(int filmId) {
+        Film film = FilmDatabase.filmFor(filmId);
+        return new Film(filmId, film.getTitle(), film.getGenre(), film.getYear(), ThreadLocalRandom.current().nextBoolean());
+    }
+
+
+    // False if the operation failed; the failure is counted, the first few are printed
+    private static boolean run(AtomicLong failures, SqlCall call) {
+        try {
+            call.run();
+            return true;
+        } catch (SQLException e) {
+            if (failures.incrementAndGet() <= 3) {
+                System.err.println(Thread.currentThread().getName() + ": " + e.getMessage());
+            }
+            return false;
+        }
+    }
+
+
+    @FunctionalInterface
+    private interface SqlCall {
+        void run() throws SQLException;
+    }
+}
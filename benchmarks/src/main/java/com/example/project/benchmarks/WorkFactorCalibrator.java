@@ -0,0 +1,68 @@
+package com.example.project.benchmarks;
+
+import com.example.project.services.PasswordHasher;
+
+import java.util.Arrays;
+
+
+// Picks the PBKDF2 iteration count for -Dfilms.auth.iterations: the largest multiple of STEP whose
+// hash still fits the login latency budget on this machine, so run it on the hardware the app runs on:
+//   java -cp benchmarks/target/benchmarks.jar com.example.project.benchmarks.WorkFactorCalibrator [budgetMs]
+// A login costs one hash plus a users lookup that is negligible next to it (see loginLookup);
+// the first login of an old account pays a second hash to upgrade the stored password.
+public final class WorkFactorCalibrator {
+
+    private static final long DEFAULT_BUDGET_MS = Long.getLong("films.auth.budgetMs", 250L);
+    private static final int PROBE_ITERATIONS = 100_000;
+    private static final int STEP = 10_000;
+    private static final int WARMUP_HASHES = 10;
+    private static final int SAMPLES = 7;
+
+
+    private WorkFactorCalibrator() { }
+
+
+    public static void main(String[] args) {
+        long budgetMs = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_BUDGET_MS;
+        long budgetNanos = budgetMs * 1_000_000;
+
+        // A running app has its HMAC code compiled after the first login, measure that state
+        for (int i = 0; i < WARMUP_HASHES; i++) {
+            PasswordHasher.hash("warm-up", PROBE_ITERATIONS);
+        }
+
+        // The cost is linear in the iteration count, so one probe gives the estimate...
+        double nanosPerIteration = (double) medianNanos(PROBE_ITERATIONS) / PROBE_ITERATIONS;
+        int iterations = Math.max(STEP, (int) (budgetNanos / nanosPerIteration) / STEP * STEP);
+
+        // ...and measuring the candidate itself corrects it
+        long measured = medianNanos(iterations);
+        while (iterations > STEP && measured > budgetNanos) {
+            iterations -= STEP;
+            measured = medianNanos(iterations);
+        }
+
+        System.out.printf("Login budget:         %d ms%n", budgetMs);
+        System.out.printf("Cost per iteration:   %.1f ns%n", nanosPerIteration);
+        System.out.printf("Chosen work factor:   %,d iterations, %.1f ms per login%n", iterations, measured / 1e6);
+        System.out.printf("Currently configured: %,d iterations%n", PasswordHasher.getIterations());
+        if (iterations < PasswordHasher.DEFAULT_ITERATIONS) {
+            System.out.printf("Note: below the default of %,d, the budget buys less protection than recommended%n",
+                    PasswordHasher.DEFAULT_ITERATIONS);
+        }
+        System.out.println();
+        System.out.println("-Dfilms.auth.iterations=" + iterations);
+    }
+
+
+    private static long medianNanos(int iterations) {
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            PasswordHasher.hash("calibration", iterations);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.project;
+
+import com.example.project.controllers.Screens;
+import com.example.project.data.DatabaseManager;
+import com.example.project.data.FilmFilter;
+import com.example.project.data.FilmPager;
+import com.example.project.data.FilmWriteQueue;
+import com.example.project.data.UserRepository;
+import com.example.project.metrics.ContinuousRecording;
+import com.example.project.metrics.Metrics;
+import com.example.project.services.TaskExecutorService;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+
+public class Main extends Application {
+
+    // Bootstrap timings in milliseconds, printed once the login screen is up
+    private long driverMillis;
+    private long schemaMillis;
+    private long statementsMillis;
+
+    @Override
+    public void init() {
+        // Runs once before the window opens, on the launcher thread: everything the first login used to pay for
+        long start = System.nanoTime();
+        DatabaseManager.warmUp();     // SQLite driver, native library and the first pooled connection
+        long warmedUp = System.nanoTime();
+        DatabaseManager.initialize(); // Schema, once per run instead of on every login
+        long migrated = System.nanoTime();
+        prepareLoginStatements();
+        long prepared = System.nanoTime();
+
+        driverMillis = (warmedUp - start) / 1_000_000;
+        schemaMillis = (migrated - warmedUp) / 1_000_000;
+        statementsMillis = (prepared - migrated) / 1_000_000;
+    }
+
+    // The login lookup and the first page are the queries every login starts with; running them once
+    // leaves their statements compiled in the pooled connection's cache
+    private static void prepareLoginStatements() {
+        try {
+            UserRepository.findByUsername("");
+            FilmPager.firstPage(0, FilmFilter.NONE, 1);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void start(Stage primaryStage) throws Exception {
+        Metrics.registerMBeans(); // For JConsole & co., see Metrics
+        ContinuousRecording.startIfEnabled(); // -Dfilms.jfr=true
+
+        // Login screen first, the film screen is parsed while the user is typing
+        long start = System.nanoTime();
+        Screens.showLogin(primaryStage);
+        long loginMillis = (System.nanoTime() - start) / 1_000_000;
+
+        long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.out.printf("Startup: JDBC driver and connection %d ms, schema %d ms, statements %d ms, login screen %d ms"
+                        + " (window shown %d ms after JVM start)%n",
+                driverMillis, schemaMillis, statementsMillis, loginMillis, sinceJvmStart);
+
+        // Only after the login screen has been laid out once, so that the preload does not delay it
+        Scene loginScene = primaryStage.getScene();
+        loginScene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                loginScene.removePostLayoutPulseListener(this);
+                Platform.runLater(Main::preloadFilmScreen);
+            }
+        });
+    }
+
+    private static void preloadFilmScreen() {
+        long start = System.nanoTime();
+        try {
+            Screens.preloadFilms();
+            System.out.printf("Startup: film screen preloaded in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            e.printStackTrace(); // Loaded on the first login instead
+        }
+    }
+
+    @Override
+    public void stop() {
+        // Let background tasks finish and flush queued writes, then close pooled database connections before the JVM exits
+        TaskExecutorService.shutdown();
+        FilmWriteQueue.shutdown(); // Writes whatever is still queued
+        DatabaseManager.shutdown();
+        ContinuousRecording.stop();
+    }
+
+    public static void main(String[] args) {
+        launch();
+    }
+}
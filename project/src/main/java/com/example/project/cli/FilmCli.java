@@ -0,0 +1,354 @@
+package com.example.project.cli;
+
+import com.example.project.data.DatabaseManager;
+import com.example.project.data.FilmFilter;
+import com.example.project.data.FilmPager;
+import com.example.project.data.FilmRepository;
+import com.example.project.data.UserRepository;
+import com.example.project.io.FilmExporter;
+import com.example.project.io.FilmImporter;
+import com.example.project.models.Film;
+import com.example.project.models.FilmValidator;
+import com.example.project.models.User;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+
+// Headless entry point for scripted batch work on films.db, e.g. on a server without a display.
+// Uses the same data layer as the desktop app but never touches JavaFX, so it starts in a fraction of a second:
+//
+//   java -p <module path> -m com.example.project/com.example.project.cli.FilmCli <command> [options]
+//
+// Run without arguments for the list of commands.
+public final class FilmCli {
+
+    private static final String USAGE = """
+            Usage: FilmCli [--db <file>] <command> [options]
+
+            Commands:
+              list        --user <name> [filters] [--limit <n>]       Print films, tab separated
+              add         --user <name> --title <t> --genre <g> --year <y> [--watched]
+              delete      --user <name> <id> [<id> ...]
+              import      --user <name> <file.csv|file.json|file.jsonl>
+              export      --user <name> <file.csv|file.jsonl> [filters]
+              set-watched --user <name> --value <true|false> [filters] Bulk update the watched flag
+              stats       [--user <name>]                             Counts per user, watched and genre
+
+            Filters:
+              --genre <g1,g2> [--all-genres]  --from <year>  --to <year>  --watched-only | --unwatched-only
+              --sort <column[:desc],...>   columns: title, genre, year, watched
+            """;
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final PrintStream out; // Results
+    private final PrintStream err; // Progress and rejected records; errors are printed by execute()
+    private final Map<String, String> options = new HashMap<>();
+    private final List<String> arguments = new ArrayList<>();
+
+
+    private FilmCli(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+
+    public static void main(String[] args) {
+        int exitCode;
+        try {
+            exitCode = execute(args, System.out, System.err);
+        } finally {
+            DatabaseManager.shutdown();
+        }
+        System.exit(exitCode);
+    }
+
+
+    // main() without System.exit() and the database shutdown: returns the exit code, 2 for a usage error
+    static int execute(String[] args, PrintStream out, PrintStream err) {
+        try {
+            return new FilmCli(out, err).run(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println();
+            err.print(USAGE);
+            return 2;
+        } catch (Exception e) {
+            err.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+
+    private int run(String[] args) throws Exception {
+        parseArguments(args);
+        if (arguments.isEmpty()) {
+            throw new IllegalArgumentException("No command given.");
+        }
+
+        // Must happen before DatabaseManager is first used, it reads the URL once
+        if (options.containsKey("db")) {
+            System.setProperty("films.db.url", "jdbc:sqlite:" + options.get("db"));
+        }
+        DatabaseManager.initialize();
+
+        String command = arguments.remove(0);
+        switch (command) {
+            case "list" -> list();
+            case "add" -> add();
+            case "delete" -> delete();
+            case "import" -> importFile();
+            case "export" -> exportFile();
+            case "set-watched" -> setWatched();
+            case "stats" -> stats();
+            case "help" -> out.print(USAGE);
+            default -> throw new IllegalArgumentException("Unknown command: " + command);
+        }
+        return 0;
+    }
+
+
+    private void list() throws SQLException {
+        int userId = requireUserId();
+        FilmFilter filter = parseFilter();
+        long limit = options.containsKey("limit") ? Long.parseLong(options.get("limit")) : Long.MAX_VALUE;
+
+        out.println("id\ttitle\tgenre\tyear\twatched");
+
+        // Page through with the keyset cursor, so even a huge collection is never held in memory at once
+        long printed = 0;
+        List<Film> page = FilmPager.firstPage(userId, filter, PAGE_SIZE);
+        while (!page.isEmpty() && printed < limit) {
+            for (Film film : page) {
+                if (printed++ >= limit) {
+                    break;
+                }
+                out.println(film.getId() + "\t" + film.getTitle() + "\t" + film.getGenre() + "\t"
+                        + film.getYear() + "\t" + film.isWatched());
+            }
+            page = page.size() < PAGE_SIZE ? List.of() : FilmPager.pageAfter(userId, filter, page.get(page.size() - 1), PAGE_SIZE);
+        }
+    }
+
+
+    private void add() throws SQLException {
+        int userId = requireUserId();
+        String title = options.getOrDefault("title", "").trim();
+        String genre = options.getOrDefault("genre", "").trim();
+        String yearText = options.getOrDefault("year", "").trim();
+
+        String error = FilmValidator.validate(title, genre, yearText);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+
+        Film film = new Film(0, title, genre, Integer.parseInt(yearText), options.containsKey("watched"));
+        out.println("Added film " + FilmRepository.insert(userId, film));
+    }
+
+
+    private void delete() throws SQLException {
+        int userId = requireUserId();
+        if (arguments.isEmpty()) {
+            throw new IllegalArgumentException("Missing <id> argument.");
+        }
+
+        List<Integer> filmIds = new ArrayList<>();
+        for (String argument : arguments) {
+            try {
+                filmIds.add(Integer.parseInt(argument));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a film id: " + argument);
+            }
+        }
+        out.println("Deleted " + FilmRepository.deleteAll(userId, filmIds) + " films.");
+    }
+
+
+    private void importFile() throws Exception {
+        int userId = requireUserId();
+        Path file = Path.of(requireArgument("file"));
+        if (!FilmImporter.isSupported(file)) {
+            throw new IllegalArgumentException("Unsupported file type: " + file.getFileName() + " (expected .csv, .json or .jsonl)");
+        }
+
+        FilmImporter.Result result = FilmImporter.importFile(file, userId, new FilmImporter.Listener() {
+            @Override
+            public void progress(long bytesRead, long totalBytes, long imported, long rejected) {
+                err.printf("\r%d%%  imported %d, rejected %d", totalBytes == 0 ? 100 : bytesRead * 100 / totalBytes, imported, rejected);
+            }
+
+            @Override
+            public void rejected(long recordNumber, String reason) {
+                err.println("\rRecord " + recordNumber + " rejected: " + reason);
+            }
+        }, () -> false);
+
+        err.println();
+        out.println("Imported " + result.imported() + " films, rejected " + result.rejected() + ".");
+    }
+
+
+    private void exportFile() throws Exception {
+        int userId = requireUserId();
+        Path file = Path.of(requireArgument("file"));
+
+        long exported = FilmExporter.export(file, FilmExporter.formatOf(file), userId, parseFilter(),
+                (done, total) -> err.printf("\r%d of %d", done, total), () -> false);
+
+        err.println();
+        out.println("Exported " + exported + " films to " + file + ".");
+    }
+
+
+    private void setWatched() throws SQLException {
+        int userId = requireUserId();
+        String value = options.get("value");
+        if (!"true".equals(value) && !"false".equals(value)) {
+            throw new IllegalArgumentException("--value must be true or false.");
+        }
+
+        int updated = FilmRepository.setWatched(userId, parseFilter(), Boolean.parseBoolean(value));
+        out.println("Updated " + updated + " films.");
+    }
+
+
+    private void stats() throws SQLException {
+        String userFilter = options.containsKey("user") ? " WHERE f.user_id = ?" : "";
+        Integer userId = options.containsKey("user") ? requireUserId() : null;
+
+        String perUser = "SELECT u.username, COUNT(*) AS films, SUM(f.watched) AS watched, MIN(f.year) AS first, MAX(f.year) AS last "
+                + "FROM films f JOIN users u ON u.id = f.user_id" + userFilter + " GROUP BY u.id ORDER BY u.username";
+        String perGenre = "SELECT g.name AS genre, COUNT(*) AS films FROM film_genres fg JOIN genres g ON g.id = fg.genre_id"
+                + " JOIN films f ON f.id = fg.film_id" + userFilter + " GROUP BY g.id ORDER BY films DESC LIMIT 10";
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            out.println("user\tfilms\twatched\tyears");
+            try (PreparedStatement pstmt = conn.prepareStatement(perUser)) {
+                if (userId != null) {
+                    pstmt.setInt(1, userId);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        out.println(rs.getString("username") + "\t" + rs.getLong("films") + "\t" + rs.getLong("watched")
+                                + "\t" + rs.getInt("first") + "-" + rs.getInt("last"));
+                    }
+                }
+            }
+
+            out.println();
+            out.println("genre\tfilms");
+            try (PreparedStatement pstmt = conn.prepareStatement(perGenre)) {
+                if (userId != null) {
+                    pstmt.setInt(1, userId);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        out.println(rs.getString("genre") + "\t" + rs.getLong("films"));
+                    }
+                }
+            }
+        }
+    }
+
+
+    private int requireUserId() throws SQLException {
+        String username = options.get("user");
+        if (username == null) {
+            throw new IllegalArgumentException("--user is required for this command.");
+        }
+
+        User user = UserRepository.findByUsername(username);
+        if (user == null) {
+            throw new IllegalArgumentException("No such user: " + username);
+        }
+        return user.getId();
+    }
+
+
+    private String requireArgument(String name) {
+        if (arguments.isEmpty()) {
+            throw new IllegalArgumentException("Missing <" + name + "> argument.");
+        }
+        return arguments.remove(0);
+    }
+
+
+    private FilmFilter parseFilter() {
+        Set<String> genres = new LinkedHashSet<>();
+        if (options.containsKey("genre")) {
+            for (String genre : options.get("genre").split(",")) {
+                if (!genre.isBlank()) {
+                    genres.add(genre.trim());
+                }
+            }
+        }
+
+        Boolean watched = null;
+        if (options.containsKey("watched-only")) {
+            watched = true;
+        } else if (options.containsKey("unwatched-only")) {
+            watched = false;
+        }
+
+        List<FilmFilter.SortKey> sortKeys = new ArrayList<>();
+        if (options.containsKey("sort")) {
+            for (String key : options.get("sort").split(",")) {
+                String[] parts = key.trim().split(":");
+                try {
+                    FilmFilter.Column column = FilmFilter.Column.valueOf(parts[0].toUpperCase(Locale.ROOT));
+                    sortKeys.add(new FilmFilter.SortKey(column, parts.length < 2 || !parts[1].equalsIgnoreCase("desc")));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown sort column: " + parts[0]);
+                }
+            }
+        }
+
+        return new FilmFilter(genres, options.containsKey("all-genres"), parseYear("from"), parseYear("to"), watched, sortKeys);
+    }
+
+
+    private Integer parseYear(String option) {
+        String text = options.get(option);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + option + " must be a year.");
+        }
+    }
+
+
+    // "--name value" pairs, "--flag" switches (no value, or followed by another option) and positional arguments
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--")) {
+                String name = args[i].substring(2);
+                boolean hasValue = i + 1 < args.length && !args[i + 1].startsWith("--");
+                options.put(name, isFlag(name) || !hasValue ? "" : args[++i]);
+            } else {
+                arguments.add(args[i]);
+            }
+        }
+    }
+
+
+    private static boolean isFlag(String name) {
+        return name.equals("watched") || name.equals("watched-only") || name.equals("unwatched-only")
+                || name.equals("all-genres");
+    }
+}
@@ -0,0 +1,1112 @@
+package com.example.project.controllers;
+
+import com.example.project.data.FilmColumnStore;
+import com.example.project.data.FilmFilter;
+import com.example.project.data.FilmPager;
+import com.example.project.data.FilmRepository;
+import com.example.project.data.FilmSearch;
+import com.example.project.data.FilmWriteQueue;
+import com.example.project.io.FilmExporter;
+import com.example.project.io.FilmImporter;
+import com.example.project.metrics.ContinuousRecording;
+import com.example.project.metrics.DeleteEvent;
+import com.example.project.metrics.InsertEvent;
+import com.example.project.metrics.Metrics;
+import com.example.project.metrics.Operation;
+import com.example.project.metrics.QueryEvent;
+import com.example.project.metrics.ReloadEvent;
+import com.example.project.metrics.SetAllEvent;
+import com.example.project.models.Film;
+import com.example.project.models.FilmData;
+import com.example.project.models.FilmListMerge;
+import com.example.project.models.FilmValidator;
+import com.example.project.models.ObservableFilm;
+import com.example.project.models.User;
+import com.example.project.services.TaskExecutorService;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.geometry.Side;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.control.cell.CheckBoxTableCell;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+
+public class FilmController {
+
+
+    @FXML private TextField titleField;
+    @FXML private TextField genreField;
+    @FXML private TextField yearField;
+    @FXML private TableView<ObservableFilm> filmTable;
+    @FXML private TableColumn<ObservableFilm, String> titleColumn;
+    @FXML private TableColumn<ObservableFilm, String> genreColumn;
+    @FXML private TableColumn<ObservableFilm, Number> yearColumn;
+    @FXML private TableColumn<ObservableFilm, Boolean> watchedColumn;
+    @FXML private TableColumn<ObservableFilm, Void> actionColumn;
+    @FXML private TextField searchField;
+    @FXML private TextField genreFilterField;
+    @FXML private CheckBox allGenresBox;
+    @FXML private TextField yearFromField;
+    @FXML private TextField yearToField;
+    @FXML private ComboBox<String> watchedFilterBox;
+    @FXML private HBox progressBox;
+    @FXML private ProgressBar progressBar;
+    @FXML private Label progressLabel;
+    @FXML private Button dumpRecordingButton;
+
+    private final ObservableList<ObservableFilm> filmList = FXCollections.observableArrayList();
+
+    // New films deleted before their INSERT returned (they still had the placeholder id -1); the insert
+    // task deletes them again by their real id. FX thread only.
+    private final Set<ObservableFilm> deletedWhileInserting = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Checkbox clicks write straight into a film's watched property; this listener (on every film in
+    // filmList) queues them for the database. Code that sets watched itself suppresses it first.
+    // Static because setAll() suppresses it too; like everything here it is only used on the JavaFX thread.
+    private final ChangeListener<Boolean> watchedListener = watchedWriter(() -> this.loggedInUser);
+    private static boolean suppressWatchedWrites;
+
+    // Large collections are shown as a window of keyset pages; -Dfilms.paging=false loads everything at once
+    private static final boolean PAGING_ENABLED = Boolean.parseBoolean(System.getProperty("films.paging", "true"));
+    private static final int PAGE_SIZE = Integer.getInteger("films.paging.pageSize", 250);
+    private static final int MAX_PAGES = Integer.getInteger("films.paging.maxPages", 8);
+
+    // -Dfilms.login.prefetch=true reads the first rows while the login screen is still building this one.
+    // Off by default: main.fxml is preloaded, so there is little left to overlap and the extra task measured
+    // slower (paged 1649 -> 1764 ms, unpaged 1785 -> 2017 ms from login to first row).
+    private static final boolean PREFETCH_ENABLED = Boolean.getBoolean("films.login.prefetch");
+
+    // -Dfilms.login.timing=true prints the time from clicking Login until the first rows are laid out
+    private static final boolean LOGIN_TIMING_ENABLED = Boolean.getBoolean("films.login.timing");
+
+    private FilmPageWindow pageWindow;
+
+    // Opt-in, and only for the non-paged mode: with -Dfilms.paging=false -Dfilms.columnStore=true the user's
+    // films are kept as loaded, in columns, and filter and sort changes are answered from them without a
+    // query until a film is written. The default paged mode never holds the whole collection and always
+    // queries, so this flag does nothing there. The store's GenreBitmapIndex comes with it, so genre filters
+    // only use bitmaps in this mode; everywhere else they go through the film_genres index in SQL.
+    private static final boolean COLUMN_STORE_ENABLED = !PAGING_ENABLED && Boolean.getBoolean("films.columnStore");
+    private volatile FilmColumnStore loadedFilms;
+
+    // Reload requests closer together than this become one reload (see ReloadScheduler)
+    private static final int RELOAD_WINDOW_MS = Integer.getInteger("films.reload.windowMs", 20);
+    private final ReloadScheduler reloads = new ReloadScheduler(Duration.millis(RELOAD_WINDOW_MS), this::reloadNow);
+
+    // Row actions: -Dfilms.actions=menu replaces the Edit and Delete buttons in every row with a plain "⋯"
+    // cell that opens one shared menu, for large windows where the buttons are most of the table's nodes.
+    // Right-click, Enter (edit) and Delete work in both modes.
+    private static final boolean ACTION_MENU = "menu".equals(System.getProperty("films.actions", "buttons"));
+    private final ContextMenu rowMenu = new ContextMenu();
+
+    private static final int SEARCH_LIMIT = Integer.getInteger("films.search.limit", 500);
+    private Task<List<ObservableFilm>> currentSearch; // Replaced (and cancelled) on every keystroke
+
+    // Filtering and sorting happen in SQL, the table itself never sorts
+    private FilmFilter currentFilter = FilmFilter.NONE;
+    private final Map<TableColumn<ObservableFilm, ?>, FilmFilter.Column> sortColumns = new HashMap<>();
+
+    private Task<?> fileTask; // The import or export currently running, if any
+    private static final int MAX_REPORTED_REJECTIONS = 20;
+
+    private static final String WATCHED_ANY = "All";
+    private static final String WATCHED_YES = "Watched";
+    private static final String WATCHED_NO = "Not watched";
+
+
+    private User loggedInUser; // The user will be redirected here after logging in
+
+    private long loginStartedAt; // System.nanoTime() of the login click, 0 once the first rows were shown
+
+
+    // Starts reading the rows the film screen shows first, on a background thread, so that it runs while
+    // the caller is still loading main.fxml. Pass the task to postInitialize(); null if prefetching is off.
+    public static Task<List<ObservableFilm>> prefetchFirstRows(int userId) {
+        if (!PREFETCH_ENABLED) {
+            return null;
+        }
+
+        Task<List<ObservableFilm>> task = new Task<>() {
+            @Override
+            protected List<ObservableFilm> call() throws Exception {
+                FilmWriteQueue.flush(); // Changes still queued from the previous session
+
+                QueryEvent query = new QueryEvent(PAGING_ENABLED ? "page" : "load");
+                query.begin();
+                List<Film> films = PAGING_ENABLED
+                        ? FilmPager.firstPage(userId, FilmFilter.NONE, PAGE_SIZE + 1)
+                        : FilmPager.all(userId, FilmFilter.NONE);
+                query.commit(userId, films.size());
+                return ObservableFilm.ofAll(films);
+            }
+        };
+
+        TaskExecutorService.submit(task);
+        return task;
+    }
+
+
+    public void postInitialize() {
+        postInitialize(null);
+    }
+
+
+    // This method should be called after setting loggedInUser.
+    // 'prefetched' comes from prefetchFirstRows() for the same user, or is null to load from scratch.
+    // The schema is set up once by Main at startup, not here on every login.
+    public void postInitialize(Task<List<ObservableFilm>> prefetched) {
+        if (prefetched == null) {
+            reloads.runNow(); // Load movies of the current user
+            return;
+        }
+
+        int userId = loggedInUser.getId();
+        if (PAGING_ENABLED) {
+            pageWindow.reset(userId, currentFilter, prefetched);
+            return;
+        }
+
+        ReloadEvent reload = new ReloadEvent();
+        reload.begin();
+        long generation = reloads.begin(prefetched);
+        whenDone(prefetched, films -> {
+            if (reloads.isCurrent(generation) && isLoggedIn(userId)) {
+                setAll(filmList, films, userId);
+                reload.commit(userId, filmList.size());
+            }
+        }, error -> {
+            error.printStackTrace();
+            loadFilmsFromDatabase(); // Try again the normal way
+        });
+    }
+
+    public void setLoggedInUser(User user) {
+        this.loggedInUser = user;
+    }
+
+
+    // Prints the time from clicking Login until the first rows are laid out in the table, with -Dfilms.login.timing=true
+    public void measureFromLogin(long loginStartedAt) {
+        this.loginStartedAt = LOGIN_TIMING_ENABLED ? loginStartedAt : 0;
+    }
+
+
+    // Full reload of the user's films. Mutations patch filmList in place, so this is only needed
+    // for the initial load and as a resync when a write failed and the list may be out of date.
+    // In paging mode it restarts the window at the first page instead of reading every row.
+    private void loadFilmsFromDatabase() {
+        if (loggedInUser != null) {
+            reloads.request(); // A burst of requests (failed writes, filter changes, ...) becomes one reload
+        }
+    }
+
+
+    // Runs in the reload task. The store is reloaded after any write, so it never shows older data than a query.
+    private List<Film> fromColumnStore(int userId, FilmFilter filter) throws SQLException {
+        FilmColumnStore store = loadedFilms;
+        if (store == null || !store.isCurrent(userId)) {
+            store = FilmColumnStore.load(userId);
+            loadedFilms = store;
+        }
+        return store.films(store.select(filter));
+    }
+
+
+    // The reload itself, run by the ReloadScheduler
+    private void reloadNow() {
+        if (loggedInUser == null) {
+            return; // Logged out meanwhile, e.g. while a failed write was being reported
+        }
+        if (!searchField.getText().isBlank()) {
+            searchFilms(searchField.getText()); // The search results are what is on screen
+            return;
+        }
+
+        if (PAGING_ENABLED) {
+            reloads.begin(null); // The page window drops its own outdated pages
+            pageWindow.reset(loggedInUser.getId(), currentFilter);
+            return;
+        }
+
+        ReloadEvent reload = new ReloadEvent();
+        reload.begin();
+
+        int userId = loggedInUser.getId();
+        FilmFilter filter = currentFilter;
+        Task<List<ObservableFilm>> task = new Task<>() {
+            @Override
+            protected List<ObservableFilm> call() throws Exception {
+                FilmWriteQueue.flush(); // Otherwise the reload could bring back values that are still queued
+
+                QueryEvent query = new QueryEvent("load");
+                query.begin();
+                List<Film> films = COLUMN_STORE_ENABLED ? fromColumnStore(userId, filter) : FilmPager.all(userId, filter);
+                query.commit(userId, films.size());
+                return ObservableFilm.ofAll(films);
+            }
+        };
+
+        long generation = reloads.begin(task);
+        task.setOnSucceeded(event -> {
+            if (reloads.isCurrent(generation) && isLoggedIn(userId)) {
+                setAll(filmList, task.getValue(), userId);
+                reload.commit(userId, filmList.size());
+            }
+        });
+
+        task.setOnFailed(event -> task.getException().printStackTrace());
+
+        TaskExecutorService.submit(task);
+    }
+
+
+    private void saveFilmToDatabase(ObservableFilm film) {
+        int userId = loggedInUser.getId();
+        // Values as they are written, copied here because the row is bound to the table and may still be
+        // edited while the insert runs
+        Film inserted = new Film(-1, film.getTitle(), film.getGenre(), film.getYear(), film.isWatched());
+        Task<Integer> task = new Task<>() {
+            @Override
+            protected Integer call() throws Exception {
+                InsertEvent insert = new InsertEvent("film");
+                insert.begin();
+
+                int id = FilmRepository.insert(userId, inserted);
+
+                insert.commit(userId, 1);
+                return id;
+            }
+
+            @Override
+            protected void succeeded() {
+                super.succeeded();
+                film.setId(getValue()); // The placeholder row already in filmList becomes the real one
+
+                if (deletedWhileInserting.remove(film)) {
+                    deleteFilmFromDatabase(userId, film); // Deleted meanwhile, now it can be found by its id
+                    return;
+                }
+                if (!hasSameValues(film, inserted)) {
+                    FilmWriteQueue.enqueue(userId, film); // Edited before the id was known
+                }
+            }
+
+            @Override
+            protected void failed() {
+                super.failed();
+                getException().printStackTrace();
+                deletedWhileInserting.remove(film);
+                loadFilmsFromDatabase(); // Resync: drop the placeholder row
+            }
+        };
+
+        TaskExecutorService.submit(task);
+    }
+
+
+    @FXML
+    public void initialize() {
+        // Each film's own properties, nothing is allocated per cell (see ObservableFilm)
+        titleColumn.setCellValueFactory(data -> data.getValue().titleProperty());
+        genreColumn.setCellValueFactory(data -> data.getValue().genreProperty());
+        yearColumn.setCellValueFactory(data -> data.getValue().yearProperty());
+
+        // The checkbox is bound to the film's watched property, watchedListener persists the clicks
+        watchedColumn.setCellValueFactory(data -> data.getValue().watchedProperty());
+        watchedColumn.setCellFactory(CheckBoxTableCell.forTableColumn(watchedColumn));
+        watchedColumn.setEditable(true);
+
+        filmTable.setEditable(true);
+        filmTable.setItems(filmList);
+
+        // Every change notification makes the table re-render, count them for the Resources MBean
+        filmList.addListener((ListChangeListener<ObservableFilm>) change -> {
+            boolean reload = false;
+            while (change.next()) {
+                for (ObservableFilm film : change.getRemoved()) {
+                    film.watchedProperty().removeListener(watchedListener);
+                }
+                for (ObservableFilm film : change.getAddedSubList()) {
+                    film.watchedProperty().addListener(watchedListener);
+                }
+                reload |= change.getFrom() == 0 && change.getTo() == filmList.size()
+                        && (change.getRemovedSize() > 0 || change.getAddedSize() > 1);
+            }
+            Metrics.recordFilmListChange(reload);
+
+            if (loginStartedAt != 0 && !filmList.isEmpty()) {
+                reportFirstRows(loginStartedAt);
+                loginStartedAt = 0;
+            }
+        });
+
+        if (PAGING_ENABLED) {
+            pageWindow = new FilmPageWindow(filmTable, filmList, PAGE_SIZE, MAX_PAGES);
+        }
+
+        // Clicking a column header reloads in the new order from the database instead of sorting filmList
+        sortColumns.put(titleColumn, FilmFilter.Column.TITLE);
+        sortColumns.put(genreColumn, FilmFilter.Column.GENRE);
+        sortColumns.put(yearColumn, FilmFilter.Column.YEAR);
+        sortColumns.put(watchedColumn, FilmFilter.Column.WATCHED);
+        actionColumn.setSortable(false);
+        filmTable.setSortPolicy(table -> {
+            applySortOrder();
+            return true;
+        });
+
+        watchedFilterBox.getItems().setAll(WATCHED_ANY, WATCHED_YES, WATCHED_NO);
+        watchedFilterBox.setValue(WATCHED_ANY);
+
+        // Only useful while a flight recording is running (-Dfilms.jfr=true)
+        dumpRecordingButton.setVisible(ContinuousRecording.isRunning());
+        dumpRecordingButton.setManaged(ContinuousRecording.isRunning());
+
+
+        addActionButtonsToTable();
+
+        // The scene is created once (see Screens), after initialize()
+        filmTable.sceneProperty().addListener((obs, oldScene, scene) -> {
+            if (oldScene == null && scene != null) {
+                measureTableLayout(scene);
+            }
+        });
+
+        searchField.textProperty().addListener((obs, oldText, newText) -> searchFilms(newText));
+
+        // DO NOT load films here! Wait until setLoggedInUser(...) is called, and only then call loadFilmsFromDatabase().
+    }
+
+
+    private void applySortOrder() {
+        List<FilmFilter.SortKey> sortKeys = new ArrayList<>();
+        for (TableColumn<ObservableFilm, ?> column : filmTable.getSortOrder()) {
+            sortKeys.add(new FilmFilter.SortKey(sortColumns.get(column), column.getSortType() == TableColumn.SortType.ASCENDING));
+        }
+
+        if (sortKeys.equals(currentFilter.getSortKeys())) {
+            return;
+        }
+        currentFilter = currentFilter.withSortKeys(sortKeys);
+        if (loggedInUser != null) {
+            loadFilmsFromDatabase();
+        }
+    }
+
+
+    @FXML
+    private void handleApplyFilter() {
+        Set<String> genres = new LinkedHashSet<>();
+        for (String genre : genreFilterField.getText().split(",")) {
+            if (!genre.isBlank()) {
+                genres.add(genre.trim());
+            }
+        }
+
+        Integer yearFrom;
+        Integer yearTo;
+        try {
+            yearFrom = parseYearFilter(yearFromField.getText());
+            yearTo = parseYearFilter(yearToField.getText());
+        } catch (IllegalArgumentException e) {
+            showAlert(e.getMessage());
+            return;
+        }
+
+        Boolean watched = switch (watchedFilterBox.getValue()) {
+            case WATCHED_YES -> true;
+            case WATCHED_NO -> false;
+            default -> null;
+        };
+
+        currentFilter = new FilmFilter(genres, allGenresBox.isSelected(), yearFrom, yearTo, watched, currentFilter.getSortKeys());
+        loadFilmsFromDatabase();
+    }
+
+
+    @FXML
+    private void handleClearFilter() {
+        genreFilterField.clear();
+        allGenresBox.setSelected(false);
+        yearFromField.clear();
+        yearToField.clear();
+        watchedFilterBox.setValue(WATCHED_ANY);
+
+        currentFilter = FilmFilter.NONE.withSortKeys(currentFilter.getSortKeys());
+        loadFilmsFromDatabase();
+    }
+
+
+    // Empty means "no bound"
+    private static Integer parseYearFilter(String text) {
+        if (text.isBlank()) {
+            return null;
+        }
+        int year;
+        try {
+            year = Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The year must be a number.");
+        }
+        if (year < FilmValidator.MIN_YEAR || year > FilmValidator.MAX_YEAR) {
+            throw new IllegalArgumentException("Please enter a valid year (" + FilmValidator.MIN_YEAR + "-" + FilmValidator.MAX_YEAR + ").");
+        }
+        return year;
+    }
+
+
+    @FXML
+    private void handleImport() {
+        if (fileTask != null) {
+            showAlert("Please wait until the current import or export has finished.");
+            return;
+        }
+
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import films");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV or JSON", "*.csv", "*.json", "*.jsonl", "*.ndjson"));
+        File file = chooser.showOpenDialog(filmTable.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        if (!FilmImporter.isSupported(file.toPath())) {
+            showAlert("Unsupported file type: " + file.getName() + " (expected .csv, .json or .jsonl)");
+            return;
+        }
+
+        int userId = loggedInUser.getId();
+        List<String> rejections = Collections.synchronizedList(new ArrayList<>());
+
+        Task<FilmImporter.Result> task = new Task<>() {
+            @Override
+            protected FilmImporter.Result call() throws Exception {
+                return FilmImporter.importFile(file.toPath(), userId, new FilmImporter.Listener() {
+                    @Override
+                    public void progress(long bytesRead, long totalBytes, long imported, long rejected) {
+                        updateProgress(bytesRead, totalBytes);
+                        updateMessage("Imported " + imported + ", rejected " + rejected);
+                    }
+
+                    @Override
+                    public void rejected(long recordNumber, String reason) {
+                        if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                            rejections.add("Record " + recordNumber + ": " + reason);
+                        }
+                    }
+                }, this::isCancelled);
+            }
+        };
+
+        task.setOnSucceeded(event -> {
+            finishFileTask();
+            loadFilmsFromDatabase();
+
+            FilmImporter.Result result = task.getValue();
+            StringBuilder summary = new StringBuilder("Imported " + result.imported() + " films, rejected " + result.rejected() + ".");
+            rejections.forEach(line -> summary.append('\n').append(line));
+            if (result.rejected() > rejections.size()) {
+                summary.append("\n...");
+            }
+            showInfo("Import finished", summary.toString());
+        });
+
+        task.setOnCancelled(event -> {
+            finishFileTask();
+            loadFilmsFromDatabase(); // Chunks committed before cancelling are kept
+        });
+
+        task.setOnFailed(event -> {
+            finishFileTask();
+            task.getException().printStackTrace();
+            loadFilmsFromDatabase();
+            showAlert("Import failed: " + task.getException().getMessage());
+        });
+
+        startFileTask(task, "Importing " + file.getName());
+    }
+
+
+    @FXML
+    private void handleExportAll() {
+        exportFilms(FilmFilter.NONE.withSortKeys(currentFilter.getSortKeys()));
+    }
+
+
+    @FXML
+    private void handleExportFiltered() {
+        exportFilms(currentFilter);
+    }
+
+
+    private void exportFilms(FilmFilter filter) {
+        if (fileTask != null) {
+            showAlert("Please wait until the current import or export has finished.");
+            return;
+        }
+
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export films");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl"));
+        chooser.setInitialFileName("films.csv");
+        File file = chooser.showSaveDialog(filmTable.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        int userId = loggedInUser.getId();
+        FilmExporter.Format format = FilmExporter.formatOf(file.toPath());
+
+        Task<Long> task = new Task<>() {
+            @Override
+            protected Long call() throws Exception {
+                return FilmExporter.export(file.toPath(), format, userId, filter, (exported, total) -> {
+                    updateProgress(exported, total);
+                    updateMessage(exported + " of " + total);
+                }, this::isCancelled);
+            }
+        };
+
+        task.setOnSucceeded(event -> {
+            finishFileTask();
+            showInfo("Export finished", "Exported " + task.getValue() + " films to " + file.getName() + ".");
+        });
+
+        task.setOnCancelled(event -> finishFileTask());
+
+        task.setOnFailed(event -> {
+            finishFileTask();
+            task.getException().printStackTrace();
+            showAlert("Export failed: " + task.getException().getMessage());
+        });
+
+        startFileTask(task, "Exporting to " + file.getName());
+    }
+
+
+    @FXML
+    private void handleDumpRecording() {
+        Task<Path> task = new Task<>() {
+            @Override
+            protected Path call() throws Exception {
+                return ContinuousRecording.dump();
+            }
+        };
+
+        task.setOnSucceeded(event -> showInfo("Recording saved", "Flight recording written to " + task.getValue()
+                + ".\nOpen it in JDK Mission Control, the film events are under \"Films\"."));
+
+        task.setOnFailed(event -> {
+            task.getException().printStackTrace();
+            showAlert("Could not save the recording: " + task.getException().getMessage());
+        });
+
+        TaskExecutorService.submit(task);
+    }
+
+
+    @FXML
+    private void handleCancelFileTask() {
+        if (fileTask != null) {
+            fileTask.cancel();
+        }
+    }
+
+
+    private void startFileTask(Task<?> task, String message) {
+        fileTask = task;
+        progressBar.progressProperty().bind(task.progressProperty());
+        progressLabel.setText(message);
+        task.messageProperty().addListener((obs, oldMessage, newMessage) -> progressLabel.setText(message + ": " + newMessage));
+        progressBox.setVisible(true);
+        progressBox.setManaged(true);
+
+        TaskExecutorService.submit(task);
+    }
+
+
+    private void finishFileTask() {
+        fileTask = null;
+        progressBar.progressProperty().unbind();
+        progressBox.setVisible(false);
+        progressBox.setManaged(false);
+    }
+
+
+    private void searchFilms(String text) {
+        if (currentSearch != null) {
+            currentSearch.cancel(); // Its results would be out of date anyway
+            currentSearch = null;
+        }
+        if (loggedInUser == null) {
+            return;
+        }
+        if (text.isBlank()) {
+            loadFilmsFromDatabase(); // Back to the full list
+            return;
+        }
+
+        if (pageWindow != null) {
+            pageWindow.suspend();
+        }
+        reloads.cancel(); // The search results replace whatever a reload would show
+
+        int userId = loggedInUser.getId();
+        Task<List<ObservableFilm>> task = new Task<>() {
+            @Override
+            protected List<ObservableFilm> call() throws Exception {
+                FilmWriteQueue.flush(); // Queued title/genre edits must be searchable too
+
+                QueryEvent query = new QueryEvent("search");
+                query.begin();
+                List<Film> films = FilmSearch.search(userId, text, SEARCH_LIMIT, this::isCancelled);
+                query.commit(userId, films.size());
+                return ObservableFilm.ofAll(films);
+            }
+        };
+
+        task.setOnSucceeded(event -> {
+            if (task == currentSearch) {
+                setAll(filmList, task.getValue(), userId);
+            }
+        });
+
+        task.setOnFailed(event -> task.getException().printStackTrace());
+
+        currentSearch = task;
+        TaskExecutorService.submit(task);
+    }
+
+
+    // Checkbox clicks are coalesced by the write-behind queue instead of running an UPDATE on the FX thread.
+    // The property's bean is its ObservableFilm. Package-private so the tests can attach it to a film.
+    static ChangeListener<Boolean> watchedWriter(Supplier<User> user) {
+        return (property, wasWatched, isWatched) -> {
+            User current = user.get();
+            if (!suppressWatchedWrites && current != null) {
+                FilmWriteQueue.enqueue(current.getId(), (ObservableFilm) ((BooleanProperty) property).getBean());
+            }
+        };
+    }
+
+
+
+    private void addActionButtonsToTable() {
+        MenuItem editItem = new MenuItem("Edit");
+        editItem.setOnAction(event -> withSelectedFilm(this::editFilm));
+        MenuItem deleteItem = new MenuItem("Delete");
+        deleteItem.setOnAction(event -> withSelectedFilm(this::deleteFilm));
+        rowMenu.getItems().setAll(editItem, deleteItem);
+        rowMenu.setOnShowing(event -> {
+            boolean noFilm = filmTable.getSelectionModel().getSelectedItem() == null;
+            editItem.setDisable(noFilm);
+            deleteItem.setDisable(noFilm);
+        });
+        filmTable.setContextMenu(rowMenu);
+
+        filmTable.addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+            if (event.getCode() == KeyCode.ENTER) {
+                withSelectedFilm(this::editFilm);
+                event.consume();
+            } else if (event.getCode() == KeyCode.DELETE) {
+                withSelectedFilm(this::deleteFilm);
+                event.consume();
+            }
+        });
+
+        actionColumn.setCellFactory(ACTION_MENU ? column -> menuCell() : column -> buttonCell());
+    }
+
+
+    // A TableCell, an HBox and two Buttons with their text per row
+    private TableCell<ObservableFilm, Void> buttonCell() {
+        return new TableCell<>() {
+            private final Button deleteButton = new Button("Delete");
+            private final Button editButton = new Button("Edit");
+            private final HBox buttonBox = new HBox(5, deleteButton, editButton);
+
+            {
+                deleteButton.setOnAction(event -> deleteFilm(getTableRow().getItem()));
+                editButton.setOnAction(event -> editFilm(getTableRow().getItem()));
+            }
+
+            @Override
+            protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty) {
+                    setGraphic(null);
+                } else {
+                    setGraphic(buttonBox);
+                }
+            }
+        };
+    }
+
+
+    // Only the TableCell and its text per row; the menu is shared by all of them
+    private TableCell<ObservableFilm, Void> menuCell() {
+        TableCell<ObservableFilm, Void> cell = new TableCell<>() {
+            @Override
+            protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty ? null : "⋯");
+            }
+        };
+        cell.setOnMouseClicked(event -> {
+            if (event.getButton() == MouseButton.PRIMARY && !cell.isEmpty()) {
+                filmTable.getSelectionModel().select(cell.getIndex());
+                rowMenu.show(cell, Side.BOTTOM, 0, 0);
+            }
+        });
+        return cell;
+    }
+
+
+    private void withSelectedFilm(Consumer<ObservableFilm> action) {
+        ObservableFilm film = filmTable.getSelectionModel().getSelectedItem();
+        if (film != null) {
+            action.accept(film);
+        }
+    }
+
+
+    private void deleteFilm(ObservableFilm film) {
+        if (film.getId() <= 0) {
+            deletedWhileInserting.add(film); // Its insert is still running and deletes it once it has an id
+        } else {
+            deleteFilmFromDatabase(loggedInUser.getId(), film); // First delete from the database
+        }
+        filmList.remove(film); // Then remove from the UI
+    }
+
+
+    public void handleLogout() {
+        FilmWriteQueue.flushAsync(); // Don't leave this user's changes waiting for the debounce timer
+
+        Stage stage = (Stage) filmTable.getScene().getWindow();
+        clearForNextUser();
+        try {
+            Screens.showLogin(stage);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+
+    // The screen is kept for the next login (see Screens), so nothing of this user may stay behind.
+    // Background work still running for them checks isLoggedIn() before touching the list.
+    private void clearForNextUser() {
+        loggedInUser = null;
+        loginStartedAt = 0;
+
+        if (currentSearch != null) {
+            currentSearch.cancel();
+            currentSearch = null;
+        }
+        if (fileTask != null) {
+            fileTask.cancel(); // An import keeps the chunks it has already committed
+        }
+        if (pageWindow != null) {
+            pageWindow.suspend();
+        }
+
+        searchField.clear();
+        genreFilterField.clear();
+        allGenresBox.setSelected(false);
+        yearFromField.clear();
+        yearToField.clear();
+        watchedFilterBox.setValue(WATCHED_ANY);
+        filmTable.getSortOrder().clear();
+        currentFilter = FilmFilter.NONE;
+        reloads.cancel(); // Including the one just requested by clearing the search field
+        loadedFilms = null;
+
+        filmList.clear();
+    }
+
+
+    private boolean isLoggedIn(int userId) {
+        return loggedInUser != null && loggedInUser.getId() == userId;
+    }
+
+
+
+    @FXML
+    private void handleAddFilm() {
+        String title = titleField.getText().trim();
+        String genre = genreField.getText().trim();
+        String yearText = yearField.getText().trim();
+
+        String error = FilmValidator.validate(title, genre, yearText);
+        if (error != null) {
+            showAlert(error);
+            return;
+        }
+        int year = Integer.parseInt(yearText);
+
+        ObservableFilm newFilm = new ObservableFilm(-1, title, genre, year, false);
+        filmList.add(newFilm);
+
+        titleField.clear();
+        genreField.clear();
+        yearField.clear();
+
+        saveFilmToDatabase(newFilm);
+
+    }
+
+    private void editFilm(ObservableFilm film) {
+        Dialog<ButtonType> dialog = new Dialog<>();
+
+        dialog.setTitle("Edit Movie");
+
+        DialogPane dialogPane = dialog.getDialogPane();
+        dialogPane.getStylesheets().add(Objects.requireNonNull(getClass().getResource("/dialog-style.css")).toExternalForm());
+        dialogPane.getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+
+        Label titleLabel = new Label("🎬 Title:");
+        titleLabel.setStyle("-fx-font-weight: bold;");
+        TextField titleField = new TextField(film.getTitle());
+        titleField.setPrefWidth(300);
+
+        Label genreLabel = new Label("🎭 Genre:");
+        genreLabel.setStyle("-fx-font-weight: bold;");
+        TextField genreField = new TextField(film.getGenre());
+        genreField.setPrefWidth(300);
+
+        Label yearLabel = new Label("📅 Year:");
+        yearLabel.setStyle("-fx-font-weight: bold;");
+        TextField yearField = new TextField(String.valueOf(film.getYear()));
+        yearField.setPrefWidth(150);
+
+        CheckBox watchedBox = new CheckBox(" Watched");
+        watchedBox.setSelected(film.isWatched());
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(15);
+        grid.setPadding(new Insets(25));
+        grid.setAlignment(Pos.CENTER_LEFT);
+
+        grid.add(titleLabel, 0, 0);
+        grid.add(titleField, 1, 0);
+        grid.add(genreLabel, 0, 1);
+        grid.add(genreField, 1, 1);
+        grid.add(yearLabel, 0, 2);
+        grid.add(yearField, 1, 2);
+        grid.add(new Label(""), 0, 3); // Empty cell for alignment
+        grid.add(watchedBox, 1, 3);
+
+        dialogPane.setContent(grid);
+
+        // Validation before closing
+
+        Button okButton = (Button) dialogPane.lookupButton(ButtonType.OK);
+        okButton.addEventFilter(ActionEvent.ACTION, event -> {
+            String newTitle = titleField.getText().trim();
+            String newGenre = genreField.getText().trim();
+            String newYearText = yearField.getText().trim();
+
+            String error = FilmValidator.validate(newTitle, newGenre, newYearText);
+            if (error != null) {
+                showAlert(error);
+                event.consume();
+                return;
+            }
+            int newYear = Integer.parseInt(newYearText);
+
+            // Update the data; the bound cells follow, and the whole film is queued once below
+            suppressWatchedWrites = true;
+            try {
+                film.setTitle(newTitle);
+                film.setGenre(newGenre);
+                film.setYear(newYear);
+                film.setWatched(watchedBox.isSelected());
+            } finally {
+                suppressWatchedWrites = false;
+            }
+
+            updateFilmInDatabase(film);
+        });
+
+        dialog.showAndWait();
+    }
+
+
+    private void deleteFilmFromDatabase(int userId, FilmData film) {
+        FilmWriteQueue.discard(film.getId()); // No point writing a pending change for a deleted row
+
+        Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                DeleteEvent delete = new DeleteEvent();
+                delete.begin();
+                boolean deleted = FilmRepository.delete(userId, film.getId());
+                delete.commit(userId, deleted ? 1 : 0);
+                return null;
+            }
+
+            @Override
+            protected void failed() {
+                super.failed();
+                getException().printStackTrace();
+                loadFilmsFromDatabase(); // Resync: the row was already removed from the UI
+            }
+        };
+
+        TaskExecutorService.submit(task);
+    }
+
+
+
+    // Edits from the dialog go through the same write-behind queue as the checkbox
+    private void updateFilmInDatabase(FilmData film) {
+        FilmWriteQueue.enqueue(loggedInUser.getId(), film);
+    }
+
+
+    // Calls back on the FX thread once the task has finished, or right away if it already has.
+    // Must be called on the FX thread, where the task's state changes too.
+    static <T> void whenDone(Task<T> task, Consumer<T> onSucceeded, Consumer<Throwable> onFailed) {
+        switch (task.getState()) {
+            case SUCCEEDED -> onSucceeded.accept(task.getValue());
+            case FAILED -> onFailed.accept(task.getException());
+            default -> {
+                task.setOnSucceeded(event -> onSucceeded.accept(task.getValue()));
+                task.setOnFailed(event -> onFailed.accept(task.getException()));
+            }
+        }
+    }
+
+
+    // The rows are laid out in the next pulse after the list changed
+    private void reportFirstRows(long startedAt) {
+        Scene scene = filmTable.getScene();
+        if (scene == null) {
+            return;
+        }
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                System.out.printf("Login to first row: %d ms (prefetch %s)%n",
+                        (System.nanoTime() - startedAt) / 1_000_000, PREFETCH_ENABLED ? "on" : "off");
+            }
+        });
+    }
+
+
+    // Times every CSS and layout pass of the film screen (Operation "layout") and records the size of the
+    // table's scene graph afterwards, so the two action column modes can be compared on a live table
+    private void measureTableLayout(Scene scene) {
+        long[] startedAt = new long[1];
+        scene.addPreLayoutPulseListener(() -> startedAt[0] = System.nanoTime());
+        scene.addPostLayoutPulseListener(() -> {
+            Metrics.record(Operation.LAYOUT, startedAt[0], false);
+
+            int[] nodesAndRows = new int[2];
+            countVisibleNodes(filmTable, nodesAndRows);
+            Metrics.recordFilmTableSize(nodesAndRows[0], nodesAndRows[1]);
+        });
+    }
+
+
+    // Hidden nodes are skipped, the table keeps a few spare rows around for scrolling
+    private static void countVisibleNodes(Node node, int[] nodesAndRows) {
+        if (!node.isVisible()) {
+            return;
+        }
+        nodesAndRows[0]++;
+        if (node instanceof TableRow<?> row && !row.isEmpty()) {
+            nodesAndRows[1]++;
+        }
+        if (node instanceof Parent parent) {
+            for (Node child : parent.getChildrenUnmodifiable()) {
+                countVisibleNodes(child, nodesAndRows);
+            }
+        }
+    }
+
+
+    // Replaces the list's contents inside a SetAllEvent. The event covers the list listeners,
+    // the table itself catches up in the next pulse. A result close to what is shown is merged
+    // (see FilmListMerge), so the table keeps its rows, selection and scroll position.
+    // The new values come from the database, so they are not queued to be written back.
+    static void setAll(ObservableList<ObservableFilm> list, List<ObservableFilm> films, int userId) {
+        SetAllEvent event = new SetAllEvent();
+        event.begin();
+
+        suppressWatchedWrites = true;
+        try {
+            boolean merged = FilmListMerge.apply(list, films);
+            if (!merged) {
+                list.setAll(films);
+            }
+            event.setMerged(merged);
+        } finally {
+            suppressWatchedWrites = false;
+        }
+
+        event.commit(userId, films.size());
+    }
+
+
+    private static boolean hasSameValues(FilmData a, FilmData b) {
+        return a.getTitle().equals(b.getTitle())
+                && a.getGenre().equals(b.getGenre())
+                && a.getYear() == b.getYear()
+                && a.isWatched() == b.isWatched();
+    }
+
+
+    private void showInfo(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+
+
+    private void showAlert(String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Error");
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+}
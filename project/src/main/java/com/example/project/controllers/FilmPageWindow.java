@@ -0,0 +1,271 @@
+package com.example.project.controllers;
+
+import com.example.project.data.FilmFilter;
+import com.example.project.data.FilmPager;
+import com.example.project.data.FilmWriteQueue;
+import com.example.project.metrics.Metrics;
+import com.example.project.metrics.QueryEvent;
+import com.example.project.metrics.ReloadEvent;
+import com.example.project.models.Film;
+import com.example.project.models.ObservableFilm;
+import com.example.project.services.TaskExecutorService;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+
+// Sliding window of keyset-paginated pages shown in the film table.
+// Only the first page is read when the screen opens, further pages are loaded as the user scrolls
+// towards either end, and at most maxPages pages are kept: the page furthest from the viewport is dropped.
+// All methods must be called on the JavaFX application thread.
+class FilmPageWindow {
+
+    private final TableView<ObservableFilm> table;
+    private final ObservableList<ObservableFilm> items;
+    private final int pageSize;
+    private final int maxPages;
+
+    private final Deque<Page> pages = new ArrayDeque<>(); // The pages currently in 'items', in display order
+    private VirtualFlow<?> flow;
+    private int userId;
+    private FilmFilter filter = FilmFilter.NONE;
+    private boolean hasPrevious;
+    private boolean hasNext;
+    private boolean loading;
+    private long generation; // Bumped on reset, so results of loads started for an older window are ignored
+    private Task<?> loadingTask; // Cancelled on reset, a page for an older window is not worth reading
+
+
+    FilmPageWindow(TableView<ObservableFilm> table, ObservableList<ObservableFilm> items, int pageSize, int maxPages) {
+        this.table = table;
+        this.items = items;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+
+        // The VirtualFlow only exists once the table has its skin
+        table.skinProperty().addListener((obs, oldSkin, newSkin) -> attachToFlow());
+        attachToFlow();
+    }
+
+
+    // Drops the current window and shows the first page of the given user's films in the filter's order
+    void reset(int userId, FilmFilter filter) {
+        reset(userId, filter, null);
+    }
+
+
+    // 'firstPage' is a query for that page (pageSize + 1 rows) that is already running, see
+    // FilmController.prefetchFirstRows(); null to start one
+    void reset(int userId, FilmFilter filter, Task<List<ObservableFilm>> firstPage) {
+        ReloadEvent reload = new ReloadEvent();
+        reload.begin();
+
+        this.userId = userId;
+        this.filter = filter;
+        generation++;
+        cancelLoading();
+        pages.clear();
+        hasPrevious = false;
+        hasNext = false;
+
+        Consumer<List<ObservableFilm>> apply = films -> {
+            hasNext = trimToPageSize(films);
+            FilmController.setAll(items, films, userId);
+            addPage(films, true);
+            reload.commit(userId, films.size());
+        };
+
+        if (firstPage != null) {
+            whenLoaded(firstPage, apply);
+            return;
+        }
+        load(() -> {
+            FilmWriteQueue.flush(); // Otherwise the page could bring back values that are still queued
+            return FilmPager.firstPage(userId, filter, pageSize + 1);
+        }, apply);
+    }
+
+
+    // Stops paging while filmList shows something else, e.g. search results
+    void suspend() {
+        generation++;
+        cancelLoading();
+        pages.clear();
+        loading = false;
+    }
+
+
+    private void cancelLoading() {
+        if (loadingTask != null) {
+            if (loadingTask.cancel(false)) {
+                Metrics.recordReloadSuperseded();
+            }
+            loadingTask = null;
+        }
+    }
+
+
+    private void loadNext() {
+        Film last = pages.getLast().last();
+        FilmFilter pageFilter = filter;
+        load(() -> FilmPager.pageAfter(userId, pageFilter, last, pageSize + 1), films -> {
+            hasNext = trimToPageSize(films);
+            items.addAll(films);
+            addPage(films, true);
+
+            if (pages.size() > maxPages) {
+                int firstVisible = firstVisibleIndex();
+                int removed = removePage(pages.removeFirst());
+                hasPrevious = true;
+                scrollTo(firstVisible - removed); // Keep the same rows in view
+            }
+        });
+    }
+
+
+    private void loadPrevious() {
+        Film first = pages.getFirst().first();
+        FilmFilter pageFilter = filter;
+        load(() -> FilmPager.pageBefore(userId, pageFilter, first, pageSize + 1), films -> {
+            // pageBefore returns rows in display order, so the extra row is the first one
+            hasPrevious = films.size() > pageSize;
+            if (hasPrevious) {
+                films.remove(0);
+            }
+
+            int firstVisible = firstVisibleIndex();
+            items.addAll(0, films);
+            addPage(films, false);
+            scrollTo(firstVisible + films.size());
+
+            if (pages.size() > maxPages) {
+                removePage(pages.removeLast());
+                hasNext = true;
+            }
+        });
+    }
+
+
+    private void load(Callable<List<Film>> query, Consumer<List<ObservableFilm>> apply) {
+        int loadUserId = userId;
+
+        Task<List<ObservableFilm>> task = new Task<>() {
+            @Override
+            protected List<ObservableFilm> call() throws Exception {
+                QueryEvent event = new QueryEvent("page");
+                event.begin();
+                List<Film> films = query.call();
+                event.commit(loadUserId, films.size());
+                return ObservableFilm.ofAll(films);
+            }
+        };
+
+        whenLoaded(task, apply);
+        TaskExecutorService.submit(task);
+    }
+
+
+    private void whenLoaded(Task<List<ObservableFilm>> task, Consumer<List<ObservableFilm>> apply) {
+        long loadGeneration = generation;
+        loading = true;
+        loadingTask = task;
+
+        FilmController.whenDone(task, films -> {
+            if (loadGeneration == generation) {
+                loading = false;
+                loadingTask = null;
+                apply.accept(films);
+            }
+        }, error -> {
+            if (loadGeneration == generation) {
+                loading = false;
+                loadingTask = null;
+            }
+            error.printStackTrace();
+        });
+    }
+
+
+    private void onScroll() {
+        if (loading || pages.isEmpty()) {
+            return;
+        }
+
+        IndexedCell<?> first = flow.getFirstVisibleCell();
+        IndexedCell<?> last = flow.getLastVisibleCell();
+        int prefetchRows = Math.max(1, pageSize / 4);
+
+        if (hasNext && last != null && last.getIndex() >= items.size() - prefetchRows) {
+            loadNext();
+        } else if (hasPrevious && first != null && first.getIndex() <= prefetchRows) {
+            loadPrevious();
+        }
+    }
+
+
+    private void attachToFlow() {
+        if (table.lookup(".virtual-flow") instanceof VirtualFlow<?> found && found != flow) {
+            flow = found;
+            flow.positionProperty().addListener((obs, oldValue, newValue) -> onScroll());
+        }
+    }
+
+
+    // Fetching one row more than a page tells whether another page exists without a COUNT(*)
+    private boolean trimToPageSize(List<ObservableFilm> films) {
+        if (films.size() > pageSize) {
+            films.remove(films.size() - 1);
+            return true;
+        }
+        return false;
+    }
+
+
+    private void addPage(List<ObservableFilm> films, boolean atEnd) {
+        if (films.isEmpty()) {
+            return;
+        }
+        Set<Integer> ids = new HashSet<>();
+        films.forEach(film -> ids.add(film.getId()));
+        Page page = new Page(films.get(0).toFilm(), films.get(films.size() - 1).toFilm(), ids);
+        if (atEnd) {
+            pages.addLast(page);
+        } else {
+            pages.addFirst(page);
+        }
+    }
+
+
+    // Removes by id rather than by position: rows may have been added or deleted since the page was loaded
+    private int removePage(Page page) {
+        int before = items.size();
+        items.removeIf(film -> page.ids().contains(film.getId()));
+        return before - items.size();
+    }
+
+
+    private int firstVisibleIndex() {
+        IndexedCell<?> first = flow == null ? null : flow.getFirstVisibleCell();
+        return first == null ? 0 : first.getIndex();
+    }
+
+
+    private void scrollTo(int index) {
+        table.scrollTo(Math.max(0, index));
+    }
+
+
+    // first/last are the keyset cursors for the neighbouring pages; they are copies (toFilm()) because
+    // the rows themselves may be edited while they are on screen, which must not move the cursor
+    private record Page(Film first, Film last, Set<Integer> ids) { }
+}
@@ -0,0 +1,132 @@
+package com.example.project.controllers;
+
+import com.example.project.models.ObservableFilm;
+import com.example.project.models.User;
+import com.example.project.services.AuthService;
+import javafx.concurrent.Task;
+import javafx.fxml.FXML;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.PasswordField;
+import javafx.scene.control.TextField;
+import javafx.stage.Stage;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+
+public class LoginController {
+
+    @FXML private TextField usernameField;
+    @FXML private PasswordField passwordField;
+    @FXML private Label messageLabel;
+    @FXML private Button loginButton;
+    @FXML private Button registerButton;
+
+    // After successful login, we need to pass the user ID to the FilmController
+    private User loggedInUser;
+
+    @FXML
+    private void handleLogin() {
+        User newUser = new User();
+        newUser.setUsername(usernameField.getText().trim());
+        newUser.setPassword(passwordField.getText().trim());
+
+        if (newUser.getUsername().isEmpty() || newUser.getPassword().isEmpty()) {
+            messageLabel.setText("Please fill in all fields.");
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+
+        // Checking the password in the background, the window stays responsive meanwhile
+        setBusy(true);
+        AuthService.loginAsync(newUser.getUsername(), newUser.getPassword(), found -> {
+            setBusy(false);
+            if (found != null) {
+                // User found — login successful
+                loggedInUser = found;
+
+                // With -Dfilms.login.prefetch=true the first films are read while the scene is built; null otherwise
+                Task<List<ObservableFilm>> firstRows = FilmController.prefetchFirstRows(found.getId());
+
+                // Opening the film list screen and passing loggedInUser to its controller
+                openFilmScreen(firstRows, startedAt);
+            } else {
+                messageLabel.setText("Incorrect username or password.");
+            }
+        }, error -> {
+            setBusy(false);
+            error.printStackTrace();
+            showAlert("Database connection error", error.getMessage());
+        });
+    }
+
+
+    @FXML
+    private void handleRegister() {
+        User newUser = new User();
+        newUser.setUsername(usernameField.getText().trim());
+        newUser.setPassword(passwordField.getText().trim());
+
+
+        if (newUser.getUsername().isEmpty() || newUser.getPassword().isEmpty()) {
+            messageLabel.setText("Please fill in all fields.");
+            return;
+        }
+
+        // Attempting to insert a new user (with the hashed password) into the users table
+        setBusy(true);
+        AuthService.registerAsync(newUser.getUsername(), newUser.getPassword(), userId -> {
+            setBusy(false);
+            messageLabel.setText("Registration successful. You can now log in.");
+        }, error -> {
+            setBusy(false);
+            // If the username uniqueness constraint is violated, an exception will be thrown
+            if (error instanceof SQLException && error.getMessage() != null
+                    && (error.getMessage().contains("UNIQUE") || error.getMessage().contains("unique"))) {
+                messageLabel.setText("A user with this username already exists.");
+            } else {
+                error.printStackTrace();
+                showAlert("Registration error", error.getMessage());
+            }
+        });
+    }
+
+
+    // No second login or registration while one is still running
+    private void setBusy(boolean busy) {
+        loginButton.setDisable(busy);
+        registerButton.setDisable(busy);
+        if (busy) {
+            messageLabel.setText("");
+        }
+    }
+
+    private void openFilmScreen(Task<List<ObservableFilm>> firstRows, long loginStartedAt) {
+        try {
+            Stage primaryStage = (Stage) usernameField.getScene().getWindow();
+            Screens.showFilms(primaryStage, loggedInUser, firstRows, loginStartedAt);
+        } catch (IOException e) {
+            e.printStackTrace();
+            showAlert("Error loading the film screen", e.getMessage());
+        }
+    }
+
+
+    // The screen is reused after a logout, so it must not show the previous user's input
+    void reset() {
+        usernameField.clear();
+        passwordField.clear();
+        messageLabel.setText("");
+        setBusy(false);
+        loggedInUser = null;
+    }
+
+    private void showAlert(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle(title);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+}
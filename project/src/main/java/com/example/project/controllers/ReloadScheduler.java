@@ -0,0 +1,95 @@
+package com.example.project.controllers;
+
+import com.example.project.metrics.Metrics;
+import javafx.animation.PauseTransition;
+import javafx.concurrent.Task;
+import javafx.util.Duration;
+
+
+// Runs the film screen's reloads, latest wins. Requests arriving within 'window' of each other are
+// collapsed into one reload, and starting a reload cancels the one still in flight, so an older
+// result can never overwrite a newer one. Each reload gets a generation number; a result is only
+// applied while isCurrent(generation) holds.
+// Both kinds of avoided work are counted for the Resources MBean (ReloadsCoalesced, ReloadsSuperseded).
+// All methods must be called on the JavaFX application thread.
+class ReloadScheduler {
+
+    private final Runnable reload;
+    private final PauseTransition delay;
+
+    private long generation;
+    private Task<?> inFlight;
+    private boolean pending;
+
+
+    // 'reload' starts the actual load and hands its Task to begin()
+    ReloadScheduler(Duration window, Runnable reload) {
+        this.reload = reload;
+        this.delay = new PauseTransition(window);
+        this.delay.setOnFinished(event -> {
+            pending = false;
+            reload.run();
+        });
+    }
+
+
+    void request() {
+        Metrics.recordReloadRequest();
+        if (pending) {
+            Metrics.recordReloadCoalesced(); // The reload already waiting will read the same data
+            return;
+        }
+        pending = true;
+        delay.playFromStart();
+    }
+
+
+    // Skips the window, for a reload the user is waiting on (the first one after login); a request
+    // that was already waiting is folded into it
+    void runNow() {
+        Metrics.recordReloadRequest();
+        if (pending) {
+            pending = false;
+            delay.stop();
+            Metrics.recordReloadCoalesced();
+        }
+        reload.run();
+    }
+
+
+    // Called by the reload with the Task it is about to submit (null if it does not load anything itself,
+    // e.g. when FilmPageWindow or a search takes over); returns the generation to check the result against
+    long begin(Task<?> task) {
+        cancelInFlight();
+        inFlight = task;
+        return ++generation;
+    }
+
+
+    boolean isCurrent(long loadGeneration) {
+        return loadGeneration == generation;
+    }
+
+
+    // Drops the waiting request and the reload in flight, e.g. on logout or when a search replaces the list
+    void cancel() {
+        if (pending) {
+            pending = false;
+            delay.stop();
+        }
+        cancelInFlight();
+        generation++;
+    }
+
+
+    // Not interrupted: the Task may be flushing queued writes. If it has not started it never runs,
+    // otherwise its result is dropped.
+    private void cancelInFlight() {
+        if (inFlight != null) {
+            if (inFlight.cancel(false)) {
+                Metrics.recordReloadSuperseded();
+            }
+            inFlight = null;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.project.controllers;
+
+import com.example.project.models.ObservableFilm;
+import com.example.project.models.User;
+import javafx.concurrent.Task;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.util.List;
+
+
+// The login screen and the film screen. Each is parsed from FXML once, when Main preloads it or at the
+// latest when it is first shown, and then kept: logging out and in again only resets the controllers.
+// Everything here runs on the JavaFX application thread.
+public final class Screens {
+
+    private static final String LOGIN_FXML = "/com/example/project/login.fxml";
+    private static final String FILM_FXML = "/com/example/project/main.fxml";
+
+    private static Scene loginScene;
+    private static LoginController loginController;
+
+    private static Scene filmScene;
+    private static FilmController filmController;
+
+
+    private Screens() { }
+
+
+    public static void preloadLogin() throws IOException {
+        if (loginScene == null) {
+            FXMLLoader loader = new FXMLLoader(Screens.class.getResource(LOGIN_FXML));
+            loginScene = new Scene(loader.load());
+            loginController = loader.getController();
+        }
+    }
+
+
+    public static void preloadFilms() throws IOException {
+        if (filmScene == null) {
+            FXMLLoader loader = new FXMLLoader(Screens.class.getResource(FILM_FXML));
+            filmScene = new Scene(loader.load());
+            filmController = loader.getController();
+        }
+    }
+
+
+    public static void showLogin(Stage stage) throws IOException {
+        preloadLogin();
+        loginController.reset();
+
+        stage.setScene(loginScene);
+        stage.setTitle("Login to the system");
+        stage.show();
+    }
+
+
+    // 'firstRows' and 'loginStartedAt' as in FilmController.postInitialize() and measureFromLogin()
+    static void showFilms(Stage stage, User user, Task<List<ObservableFilm>> firstRows, long loginStartedAt) throws IOException {
+        preloadFilms();
+        filmController.setLoggedInUser(user);
+        filmController.measureFromLogin(loginStartedAt);
+        filmController.postInitialize(firstRows); // Loading films
+
+        stage.setScene(filmScene);
+        stage.setTitle("Film list — user: " + user.getUsername());
+        stage.show();
+    }
+}
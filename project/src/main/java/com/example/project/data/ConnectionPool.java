@@ -0,0 +1,374 @@
+package com.example.project.data;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+
+// A small bounded pool of JDBC connections.
+// Callers get a proxy whose close() hands the physical connection back to the pool instead of closing it,
+// so the usual try-with-resources code keeps working unchanged.
+// With a statement cache, prepareStatement() on such a proxy reuses the statement prepared earlier on the same
+// physical connection, and closing the statement hands it back to that cache (parameters cleared).
+public class ConnectionPool {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String name;
+    private final String url;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+    private final int statementCacheSize;
+    private final ConnectionInitializer initializer;
+
+    private final Semaphore permits;
+    private final Deque<IdleConnection> idle = new ArrayDeque<>(); // guarded by 'this', most recently used first
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final ScheduledExecutorService evictor;
+
+    private volatile boolean closed;
+
+
+    // statementCacheSize: prepared statements kept per physical connection, 0 disables the cache
+    public ConnectionPool(String name, String url, int maxSize, long idleTimeoutMillis, long borrowTimeoutMillis,
+                          int statementCacheSize, ConnectionInitializer initializer) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1, got " + maxSize);
+        }
+        this.name = name;
+        this.url = url;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.initializer = initializer;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-evictor");
+            thread.setDaemon(true); // Must never keep the application alive
+            return thread;
+        });
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool '" + name + "' is shut down");
+        }
+
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + borrowTimeoutMillis + " ms waiting for a connection from pool '" + name + "'");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PhysicalConnection physical = takeValidIdle();
+            if (physical == null) {
+                physical = openConnection();
+            }
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+
+    private PhysicalConnection openConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        PhysicalConnection physical = new PhysicalConnection(connection, statementCacheSize > 0
+                ? new StatementCache(connection, statementCacheSize, statementCacheHits, statementCacheMisses)
+                : null);
+        openCount.incrementAndGet();
+        try {
+            initializer.initialize(connection);
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(physical);
+            throw e;
+        }
+        return physical;
+    }
+
+
+    // Validation on borrow: a connection that went bad while idle is dropped and the next one is tried
+    private PhysicalConnection takeValidIdle() {
+        while (true) {
+            IdleConnection candidate;
+            synchronized (this) {
+                candidate = idle.pollFirst();
+            }
+            if (candidate == null) {
+                return null;
+            }
+            try {
+                if (candidate.physical.connection().isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    return candidate.physical;
+                }
+            } catch (SQLException ignored) {
+                // Treated the same as an invalid connection
+            }
+            closeQuietly(candidate.physical);
+        }
+    }
+
+
+    private void release(PhysicalConnection physical) {
+        Connection connection = physical.connection();
+        try {
+            if (closed || connection.isClosed()) {
+                closeQuietly(physical);
+                return;
+            }
+
+            // Leave the connection in the same state a fresh one would be in
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            connection.clearWarnings();
+
+            synchronized (this) {
+                idle.addFirst(new IdleConnection(physical, System.currentTimeMillis()));
+            }
+        } catch (SQLException e) {
+            closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        List<PhysicalConnection> expired = new ArrayList<>();
+
+        synchronized (this) {
+            Iterator<IdleConnection> it = idle.iterator();
+            while (it.hasNext()) {
+                IdleConnection entry = it.next();
+                if (entry.lastUsed < cutoff) {
+                    it.remove();
+                    expired.add(entry.physical);
+                }
+            }
+        }
+
+        expired.forEach(this::closeQuietly);
+    }
+
+
+    public void shutdown() {
+        closed = true;
+        evictor.shutdownNow();
+
+        List<PhysicalConnection> remaining = new ArrayList<>();
+        synchronized (this) {
+            idle.forEach(entry -> remaining.add(entry.physical));
+            idle.clear();
+        }
+
+        // Borrowed connections are closed when their owners hand them back
+        remaining.forEach(this::closeQuietly);
+    }
+
+
+    public String getName() { return name; }
+
+    public int getMaxSize() { return maxSize; }
+
+    public int getActiveCount() { return maxSize - permits.availablePermits(); }
+
+    public synchronized int getIdleCount() { return idle.size(); }
+
+    public int getOpenCount() { return openCount.get(); }
+
+    public int getWaitingCount() { return permits.getQueueLength(); }
+
+    public boolean isShutdown() { return closed; }
+
+    // prepareStatement() calls served from / missing the per-connection statement caches
+    public long getStatementCacheHits() { return statementCacheHits.sum(); }
+
+    public long getStatementCacheMisses() { return statementCacheMisses.sum(); }
+
+
+    private void closeQuietly(PhysicalConnection physical) {
+        if (physical.statements() != null) {
+            physical.statements().closeAll();
+        }
+        try {
+            physical.connection().close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            openCount.decrementAndGet();
+        }
+    }
+
+
+    private Connection wrap(PhysicalConnection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(physical));
+    }
+
+
+    // Runs once for every new physical connection, e.g. to apply per-connection PRAGMAs
+    @FunctionalInterface
+    public interface ConnectionInitializer {
+        void initialize(Connection connection) throws SQLException;
+    }
+
+
+    // 'statements' is null when the statement cache is disabled
+    private record PhysicalConnection(Connection connection, StatementCache statements) { }
+
+
+    private record IdleConnection(PhysicalConnection physical, long lastUsed) { }
+
+
+    // The handle given to callers. After close() it refuses further use, so a stale reference
+    // can never touch a connection that already belongs to someone else.
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private final List<CachedStatementHandler> statements = new ArrayList<>();
+        private boolean returned;
+
+        PooledConnectionHandler(PhysicalConnection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        statements.forEach(CachedStatementHandler::close); // Statements the caller forgot to close
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.connection().isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + name + "] " + physical.connection();
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+
+            if (method.getName().equals("prepareStatement") && physical.statements() != null && isCacheable(args)) {
+                StatementCache.Entry entry = physical.statements().acquire((String) args[0], args.length == 2 ? (int) args[1] : -1);
+                if (entry != null) {
+                    CachedStatementHandler handler = new CachedStatementHandler(physical.statements(), entry, (Connection) proxy);
+                    statements.add(handler);
+                    return Proxy.newProxyInstance(
+                            PreparedStatement.class.getClassLoader(),
+                            new Class<?>[]{PreparedStatement.class},
+                            handler);
+                }
+            }
+
+            try {
+                return method.invoke(physical.connection(), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        // prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys); the other variants are rare enough to skip
+        private static boolean isCacheable(Object[] args) {
+            return args.length == 1 || (args.length == 2 && args[1] instanceof Integer);
+        }
+    }
+
+
+    // A cached statement as seen by the caller: close() clears its parameters and returns it to the cache
+    private static class CachedStatementHandler implements InvocationHandler {
+        private final StatementCache cache;
+        private final StatementCache.Entry entry;
+        private final Connection logical;
+        private boolean closed;
+
+        CachedStatementHandler(StatementCache cache, StatementCache.Entry entry, Connection logical) {
+            this.cache = cache;
+            this.entry = entry;
+            this.logical = logical;
+        }
+
+        synchronized void close() {
+            if (!closed) {
+                closed = true;
+                cache.release(entry);
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached " + entry.statement;
+                default:
+                    break;
+            }
+
+            synchronized (this) {
+                if (closed) {
+                    throw new SQLException("Statement has already been closed");
+                }
+            }
+            if (method.getName().equals("getConnection")) {
+                return logical; // Never leak the physical connection
+            }
+
+            try {
+                return method.invoke(entry.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.project.data;
+
+import org.sqlite.BusyHandler;
+
+import java.sql.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+
+// Two kinds of connections to the one database file: a small pool of read-only connections for every
+// query (getConnection()) and a single writer connection behind its own thread for every change (write()).
+// In WAL mode a reader keeps reading the last committed state while the writer works, so a long reload
+// does not wait for a write, and with one writer there is nothing for writes to fight over either.
+// A connection that does find the database locked (by a checkpoint or another process, e.g. FilmCli)
+// waits up to its busy timeout; those waits are counted for the Resources MBean.
+public class DatabaseManager {
+    // -Dfilms.db.url=jdbc:sqlite:/path/to/other.db points the application at another database file
+    private static final String DB_URL = System.getProperty("films.db.url", "jdbc:sqlite:films.db");
+
+    // Pool settings can be overridden with -Dfilms.db.pool.size=... etc. The size is that of the read pool.
+    private static final int POOL_SIZE = Integer.getInteger("films.db.pool.size", 4);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("films.db.pool.idleTimeoutMs", 60_000L);
+    private static final long POOL_BORROW_TIMEOUT_MS = Long.getLong("films.db.pool.borrowTimeoutMs", 30_000L);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("films.db.pool.statementCacheSize", 32); // Per connection, 0 = off
+
+    // How long a connection waits for a lock held by another connection before failing with SQLITE_BUSY
+    private static final long READ_BUSY_TIMEOUT_MS = Long.getLong("films.db.readBusyTimeoutMs", 2_000L);
+    private static final long WRITE_BUSY_TIMEOUT_MS = Long.getLong("films.db.writeBusyTimeoutMs", 5_000L);
+
+    // -Dfilms.db.tuning=false keeps SQLite's default settings, e.g. to compare performance.
+    // Without WAL a reader can be blocked by a write that is being committed.
+    private static final boolean TUNING_ENABLED = Boolean.parseBoolean(System.getProperty("films.db.tuning", "true"));
+
+    // Per-connection settings, applied to every new pooled connection
+    private static final String[] CONNECTION_PRAGMAS = {
+            "PRAGMA synchronous = NORMAL",   // Safe in WAL mode, avoids an fsync on every commit
+            "PRAGMA cache_size = -16000",    // 16 MB page cache (negative value = KiB)
+            "PRAGMA mmap_size = 268435456",  // Read through up to 256 MB of memory-mapped I/O
+            "PRAGMA temp_store = MEMORY"
+    };
+
+    // SQLite's own busy_timeout backs off in these steps too
+    private static final int[] BUSY_DELAYS_MS = {1, 2, 5, 10, 15, 20, 25, 25, 25, 50, 50, 100};
+
+    // Used to check that the per-user film load is served by an index
+    private static final String FILMS_BY_USER_SQL = "SELECT id, title, genre, year, watched FROM films WHERE user_id = ?";
+
+    private static ConnectionPool pool; // Read-only connections
+    private static DatabaseWriter writer;
+    private static boolean shutDown; // After shutdown() nothing is opened again, a late caller gets an SQLException
+    private static boolean initialized; // The schema only has to be checked once per run
+
+    private static final LongAdder readLockWaits = new LongAdder();
+    private static final LongAdder writeLockWaits = new LongAdder();
+    private static final LongAdder lockWaitNanos = new LongAdder();
+    private static final LongAdder lockTimeouts = new LongAdder();
+
+    // Safe to call more than once, only the first call per run does anything
+    public static synchronized void initialize() {
+        if (initialized) {
+            return;
+        }
+        try {
+            write(DatabaseManager::migrate);
+            initialized = true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+
+    // Runs on the writer connection: the migrations and the journal mode both write
+    private static Void migrate(Connection conn) throws SQLException {
+        if (TUNING_ENABLED) {
+            // WAL is stored in the database file itself, so it only has to be set once
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA journal_mode = WAL");
+            }
+        }
+
+        if (SchemaMigrator.currentVersion(conn) == SchemaMigrator.latestVersion()) {
+            return null;
+        }
+
+        // A brand-new database file has no films table to explain yet
+        String planBefore = hasTable(conn, "films") ? explainQueryPlan(conn, FILMS_BY_USER_SQL) : null;
+        SchemaMigrator.migrate(conn);
+        String planAfter = explainQueryPlan(conn, FILMS_BY_USER_SQL);
+
+        // Compare the query plan before and after the migration
+        if (planBefore != null && !planBefore.equals(planAfter)) {
+            System.out.println("Per-user film query plan changed: [" + planBefore + "] -> [" + planAfter + "]");
+        }
+        if (planAfter.contains("SCAN films")) {
+            System.err.println("Warning: per-user film query still scans the whole table: " + planAfter);
+        }
+        return null;
+    }
+
+
+    // Loads the SQLite driver (and its native library) and opens the first pooled connection,
+    // so that the first real query does not pay for either
+    public static void warmUp() {
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1")) {
+            rs.next();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+
+    // Returns SQLite's EXPLAIN QUERY PLAN output as one line, e.g. "SEARCH films USING INDEX idx_films_user_id (user_id=?)"
+    public static String explainQueryPlan(Connection conn, String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+
+        try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            // Bind dummy values, only the shape of the query matters for the plan
+            int parameters = pstmt.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                pstmt.setInt(i, 0);
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (!plan.isEmpty()) {
+                        plan.append("; ");
+                    }
+                    plan.append(rs.getString("detail"));
+                }
+            }
+        }
+        return plan.toString();
+    }
+
+
+    private static boolean hasTable(Connection conn, String name) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            pstmt.setString(1, name);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+
+    // Returns a pooled read-only connection; closing it gives it back to the pool.
+    // Anything that changes the database goes through write() instead.
+    public static Connection getConnection() throws SQLException {
+        return getPool().borrow();
+    }
+
+
+    // Runs 'work' on the writer connection, after the writes submitted before it, and returns its result.
+    // Committed when 'work' returns unless it manages a transaction of its own.
+    public static <T> T write(DatabaseWriter.SqlWork<T> work) throws SQLException {
+        return getWriter().write(work);
+    }
+
+
+    // write() in one transaction: committed if 'work' returns, rolled back if it throws.
+    // Knows nothing about films; FilmRepository.inTransaction() is this plus the film version bump.
+    public static <T> T inTransaction(DatabaseWriter.SqlWork<T> work) throws SQLException {
+        return write(conn -> {
+            conn.setAutoCommit(false);
+            try {
+                T result = work.run(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        });
+    }
+
+
+    // Opened on first use
+    public static synchronized ConnectionPool getPool() throws SQLException {
+        checkOpen();
+        if (pool == null) {
+            pool = new ConnectionPool("films-db", DB_URL, POOL_SIZE, POOL_IDLE_TIMEOUT_MS, POOL_BORROW_TIMEOUT_MS,
+                    STATEMENT_CACHE_SIZE, conn -> configureConnection(conn, false));
+        }
+        return pool;
+    }
+
+
+    public static synchronized DatabaseWriter getWriter() throws SQLException {
+        checkOpen();
+        if (writer == null) {
+            writer = new DatabaseWriter(new ConnectionPool("films-db-writer", DB_URL, 1, POOL_IDLE_TIMEOUT_MS,
+                    POOL_BORROW_TIMEOUT_MS, STATEMENT_CACHE_SIZE, conn -> configureConnection(conn, true)));
+        }
+        return writer;
+    }
+
+
+    private static void checkOpen() throws SQLException {
+        if (shutDown) {
+            throw new SQLException("The database has been shut down");
+        }
+    }
+
+
+    // The current read pool, or null if none is open; never opens one (for monitoring)
+    public static synchronized ConnectionPool getPoolIfOpen() {
+        return pool == null || pool.isShutdown() ? null : pool;
+    }
+
+
+    // The same for the writer
+    public static synchronized DatabaseWriter getWriterIfOpen() {
+        return writer == null || writer.isShutdown() ? null : writer;
+    }
+
+
+    private static void configureConnection(Connection conn, boolean forWriter) throws SQLException {
+        BusyHandler.setHandler(conn, new LockWait(forWriter, forWriter ? WRITE_BUSY_TIMEOUT_MS : READ_BUSY_TIMEOUT_MS));
+        try (Statement stmt = conn.createStatement()) {
+            if (!forWriter) {
+                stmt.execute("PRAGMA query_only = ON"); // A write through a read connection fails instead of taking the lock
+            }
+            if (TUNING_ENABLED) {
+                for (String pragma : CONNECTION_PRAGMAS) {
+                    stmt.execute(pragma);
+                }
+            }
+        }
+    }
+
+
+    // Lock contention since startup: waits for a lock by read and by write connections, the time spent
+    // waiting, and the waits that ran into the busy timeout (the statement failed with SQLITE_BUSY)
+    public static long getReadLockWaits() { return readLockWaits.sum(); }
+
+    public static long getWriteLockWaits() { return writeLockWaits.sum(); }
+
+    public static long getLockWaitMillis() { return TimeUnit.NANOSECONDS.toMillis(lockWaitNanos.sum()); }
+
+    public static long getLockTimeouts() { return lockTimeouts.sum(); }
+
+
+    // Called once when the application exits; queued writes are finished first.
+    // Later calls to getConnection() and write() fail instead of opening new connections.
+    public static synchronized void shutdown() {
+        shutDown = true;
+        if (writer != null) {
+            writer.shutdown();
+            writer = null;
+        }
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+
+    // Replaces PRAGMA busy_timeout, with the same back-off, so that every wait for a lock is counted.
+    // One per connection, and a connection is only used by one thread at a time.
+    private static final class LockWait extends BusyHandler {
+
+        private final boolean forWriter;
+        private final long timeoutNanos;
+        private long waitStart;
+
+        LockWait(boolean forWriter, long timeoutMillis) {
+            this.forWriter = forWriter;
+            this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        }
+
+        // Called by SQLite while the database is locked; 0 gives up, anything else retries
+        @Override
+        protected int callback(int previousCalls) {
+            long now = System.nanoTime();
+            if (previousCalls == 0) {
+                waitStart = now;
+                (forWriter ? writeLockWaits : readLockWaits).increment();
+            }
+
+            long remaining = timeoutNanos - (now - waitStart);
+            if (remaining <= 0) {
+                lockTimeouts.increment();
+                System.err.println("Gave up waiting for a database lock after "
+                        + TimeUnit.NANOSECONDS.toMillis(now - waitStart) + " ms (" + (forWriter ? "writer" : "reader") + ")");
+                return 0;
+            }
+
+            long delay = Math.min(TimeUnit.MILLISECONDS.toNanos(BUSY_DELAYS_MS[Math.min(previousCalls, BUSY_DELAYS_MS.length - 1)]), remaining);
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 0;
+            } finally {
+                lockWaitNanos.add(System.nanoTime() - now);
+            }
+            return 1;
+        }
+    }
+}
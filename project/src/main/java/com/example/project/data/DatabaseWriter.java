@@ -0,0 +1,147 @@
+package com.example.project.data;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+
+// The only way the application writes to the database: one thread with one connection, so writes are
+// applied one after another in the order they were submitted and never fight each other for SQLite's
+// write lock. Readers use DatabaseManager's read-only pool and, in WAL mode, are not blocked by a write.
+// write() hands the work to the writer thread and waits for its result; work that writes again from
+// inside a write runs directly, on the same connection.
+// How long writes queue up behind each other is counted for the Resources MBean.
+public class DatabaseWriter {
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final ConnectionPool connections; // Exactly one connection; the pool keeps its statement cache
+    private final ExecutorService executor;
+    private volatile Thread thread;
+    private Connection current; // Only touched on the writer thread, set while a write runs
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+
+
+    DatabaseWriter(ConnectionPool connections) {
+        if (connections.getMaxSize() != 1) {
+            throw new IllegalArgumentException("The writer needs a pool of exactly one connection, got " + connections.getMaxSize());
+        }
+        this.connections = connections;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread writer = new Thread(runnable, connections.getName());
+            writer.setDaemon(true); // shutdown() lets queued writes finish, the thread must not keep the JVM alive
+            thread = writer;
+            return writer;
+        });
+    }
+
+
+    // Runs 'work' on the writer thread and returns its result. 'work' must not keep the connection.
+    // If the calling thread is interrupted while waiting, the write still happens; only its result is lost.
+    public <T> T write(SqlWork<T> work) throws SQLException {
+        if (Thread.currentThread() == thread) {
+            return run(work);
+        }
+
+        long queuedAt = System.nanoTime();
+        queued.incrementAndGet();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                queued.decrementAndGet();
+                recordQueueWait(System.nanoTime() - queuedAt);
+                return run(work);
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            throw new SQLException("Database writer '" + connections.getName() + "' is shut down", e);
+        }
+
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new SQLException("Write failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the database writer", e);
+        }
+    }
+
+
+    private <T> T run(SqlWork<T> work) throws SQLException {
+        if (current != null) {
+            return work.run(current); // A write from inside a write, in its transaction
+        }
+        try (Connection conn = connections.borrow()) {
+            current = conn;
+            T result = work.run(conn);
+            writes.increment();
+            return result;
+        } finally {
+            current = null;
+        }
+    }
+
+
+    private void recordQueueWait(long nanos) {
+        queueWaitNanos.add(nanos);
+        maxQueueWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+
+    // Writes already submitted are still carried out, then the connection is closed
+    void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                System.err.println("Database writer did not finish within " + SHUTDOWN_TIMEOUT_MS + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        connections.shutdown();
+    }
+
+
+    public boolean isShutdown() { return executor.isShutdown(); }
+
+    public ConnectionPool getConnections() { return connections; }
+
+    // Writes waiting for the writer thread right now
+    public int getQueuedCount() { return queued.get(); }
+
+    public long getWriteCount() { return writes.sum(); }
+
+    // Time writes spent queued behind other writes, in total and the longest single wait
+    public long getQueueWaitMillis() { return TimeUnit.NANOSECONDS.toMillis(queueWaitNanos.sum()); }
+
+    public long getMaxQueueWaitMillis() { return TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanos.get()); }
+
+
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T run(Connection conn) throws SQLException;
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.project.data;
+
+import com.example.project.metrics.Metrics;
+import com.example.project.metrics.Operation;
+import com.example.project.models.Film;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+
+// One user's whole collection held in columns instead of Film objects. Opt-in: FilmController only uses
+// it with -Dfilms.paging=false -Dfilms.columnStore=true, the default paged mode queries page by page.
+// Ids and years in int[]s, watched in a BitSet, genres as codes into a small dictionary (so "Drama" is
+// stored once, not once per film) and titles deduplicated while loading. Rows are in id order.
+// Filtering, sorting and counting with a FilmFilter run over these arrays with the same meaning as the
+// SQL from FilmQueryCompiler; genre filters start from the GenreBitmapIndex and only visit its rows.
+// Films are only created for the rows that are actually asked for.
+// Immutable once built, so it can be shared between threads. A store is a snapshot: isCurrent() tells
+// whether any film has been written since it was loaded (see FilmRepository.getVersion()).
+public final class FilmColumnStore {
+
+    private static final String LOAD_SQL = "SELECT id, title, genre, year, watched FROM films WHERE user_id = ? ORDER BY id";
+
+    private final int userId;
+    private final long version;
+    private final int size;
+    private final int[] ids;
+    private final int[] years;
+    private final BitSet watched;
+    private final String[] titles;
+    private final int[] genreCodes;
+    private final String[] genres;     // The dictionary, indexed by genre code
+    private final int[] genreRanks;    // Sort position of each genre code
+    private final GenreBitmapIndex genreIndex;
+
+
+    private FilmColumnStore(Builder builder, long version) {
+        this.userId = builder.userId;
+        this.version = version;
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.years = Arrays.copyOf(builder.years, size);
+        this.watched = builder.watched;
+        this.titles = Arrays.copyOf(builder.titles, size);
+        this.genreCodes = Arrays.copyOf(builder.genreCodes, size);
+        this.genres = builder.genres.toArray(new String[0]);
+
+        Integer[] byName = new Integer[genres.length];
+        for (int code = 0; code < genres.length; code++) {
+            byName[code] = code;
+        }
+        Arrays.sort(byName, (a, b) -> genres[a].compareTo(genres[b]));
+        this.genreRanks = new int[genres.length];
+        for (int rank = 0; rank < byName.length; rank++) {
+            genreRanks[byName[rank]] = rank;
+        }
+        this.genreIndex = new GenreBitmapIndex(size, genreCodes, genres);
+    }
+
+
+    // Reads every film of the user straight into columns, without a Film per row
+    public static FilmColumnStore load(int userId) throws SQLException {
+        return Metrics.time(Operation.LOAD, () -> {
+            long version = FilmRepository.getVersion(); // Before reading: a write during the read makes it stale
+            Builder builder = new Builder(userId);
+
+            try (Connection conn = DatabaseManager.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(LOAD_SQL)) {
+
+                pstmt.setInt(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        builder.add(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getInt(4), rs.getInt(5) == 1);
+                    }
+                }
+            }
+            return builder.build(version);
+        });
+    }
+
+
+    // For films already in memory; they must be in id order
+    public static FilmColumnStore of(int userId, List<? extends Film> films) {
+        Builder builder = new Builder(userId);
+        for (Film film : films) {
+            builder.add(film.getId(), film.getTitle(), film.getGenre(), film.getYear(), film.isWatched());
+        }
+        return builder.build(FilmRepository.getVersion());
+    }
+
+
+    public int getUserId() { return userId; }
+
+    public int size() { return size; }
+
+    public int getGenreCount() { return genreIndex.getGenres().size(); }
+
+    public GenreBitmapIndex getGenreIndex() { return genreIndex; }
+
+
+    // False once a film has been written since the store was loaded, or for another user
+    public boolean isCurrent(int userId) {
+        return this.userId == userId && version == FilmRepository.getVersion();
+    }
+
+
+    // A new Film for one row
+    public Film get(int row) {
+        return new Film(ids[row], titles[row], genres[genreCodes[row]], years[row], watched.get(row));
+    }
+
+
+    public List<Film> films(int[] rows) {
+        List<Film> films = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            films.add(get(row));
+        }
+        return films;
+    }
+
+
+    // The rows matching the filter, in its sort order (id breaks ties, as in SQL)
+    public int[] select(FilmFilter filter) {
+        int[] rows = new int[size];
+        rows = Arrays.copyOf(rows, scan(filter, rows));
+        sort(rows, filter.getSortKeys());
+        return rows;
+    }
+
+
+    public int count(FilmFilter filter) {
+        return scan(filter, null);
+    }
+
+
+    // Matching films per genre (a film with two genres counts for both), most frequent first
+    public Map<String, Integer> countByGenre(FilmFilter filter) {
+        int[] rows = new int[size];
+        int count = scan(filter, rows);
+        BitSet matching = new BitSet(size);
+        for (int i = 0; i < count; i++) {
+            matching.set(rows[i]);
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (String genre : genreIndex.getGenres()) {
+            BitSet genreRows = genreIndex.rowsWith(genre);
+            genreRows.and(matching);
+            if (!genreRows.isEmpty()) {
+                counts.put(genre, genreRows.cardinality());
+            }
+        }
+
+        Map<String, Integer> result = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEachOrdered(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+
+    // Puts the matching rows, in row order, into 'rows' (if not null) and returns how many there are.
+    // With genres in the filter only the rows of the genre bitmaps are visited.
+    private int scan(FilmFilter filter, int[] rows) {
+        IntPredicate matches = predicateFor(filter);
+        int count = 0;
+        if (filter.getGenres().isEmpty()) {
+            for (int row = 0; row < size; row++) {
+                if (matches.test(row)) {
+                    if (rows != null) {
+                        rows[count] = row;
+                    }
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        BitSet genreRows = filter.isAllGenres()
+                ? genreIndex.rowsWithAll(filter.getGenres())
+                : genreIndex.rowsWithAny(filter.getGenres());
+        if (rows == null && filter.getYearFrom() == null && filter.getYearTo() == null && filter.getWatched() == null) {
+            return genreRows.cardinality(); // Only genres: the bitmaps are the answer
+        }
+        long[] words = genreRows.toLongArray(); // 64 rows at a time, quicker than nextSetBit() per row
+        for (int word = 0; word < words.length; word++) {
+            for (long bits = words[word]; bits != 0; bits &= bits - 1) {
+                int row = word * 64 + Long.numberOfTrailingZeros(bits);
+                if (matches.test(row)) {
+                    if (rows != null) {
+                        rows[count] = row;
+                    }
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+
+    // Year and watched, with the filter's bounds unboxed once so the per-row test only reads the arrays
+    private IntPredicate predicateFor(FilmFilter filter) {
+        int yearFrom = filter.getYearFrom() != null ? filter.getYearFrom() : Integer.MIN_VALUE;
+        int yearTo = filter.getYearTo() != null ? filter.getYearTo() : Integer.MAX_VALUE;
+        IntPredicate byYear = row -> years[row] >= yearFrom && years[row] <= yearTo;
+
+        if (filter.getWatched() == null) {
+            return byYear;
+        }
+        boolean wanted = filter.getWatched();
+        return row -> byYear.test(row) && watched.get(row) == wanted;
+    }
+
+
+    private void sort(int[] rows, List<FilmFilter.SortKey> keys) {
+        if (keys.isEmpty()) {
+            return; // Already in id order
+        }
+        RowComparator[] comparators = new RowComparator[keys.size()];
+        for (int i = 0; i < comparators.length; i++) {
+            RowComparator comparator = comparatorFor(keys.get(i).column());
+            comparators[i] = keys.get(i).ascending() ? comparator : (a, b) -> comparator.compare(b, a);
+        }
+        RowComparator byKeys = (a, b) -> {
+            for (RowComparator comparator : comparators) {
+                int result = comparator.compare(a, b);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return Integer.compare(a, b); // Row order is id order
+        };
+        mergeSort(rows, new int[rows.length], 0, rows.length, byKeys);
+    }
+
+
+    private RowComparator comparatorFor(FilmFilter.Column column) {
+        return switch (column) {
+            case TITLE -> (a, b) -> titles[a].compareTo(titles[b]); // SQL's BINARY order, except beyond the BMP
+            case GENRE -> (a, b) -> Integer.compare(genreRanks[genreCodes[a]], genreRanks[genreCodes[b]]);
+            case YEAR -> (a, b) -> Integer.compare(years[a], years[b]);
+            case WATCHED -> (a, b) -> Boolean.compare(watched.get(a), watched.get(b));
+        };
+    }
+
+
+    // Sorts rows[from, to) on the primitive values, no boxing; 'scratch' is as long as 'rows'
+    private static void mergeSort(int[] rows, int[] scratch, int from, int to, RowComparator comparator) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(rows, scratch, from, middle, comparator);
+        mergeSort(rows, scratch, middle, to, comparator);
+        if (comparator.compare(rows[middle - 1], rows[middle]) <= 0) {
+            return; // Already in order, common when the sort keys follow the ids
+        }
+
+        System.arraycopy(rows, from, scratch, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && comparator.compare(scratch[left], scratch[right]) <= 0)) {
+                rows[i] = scratch[left++];
+            } else {
+                rows[i] = scratch[right++];
+            }
+        }
+    }
+
+
+    @FunctionalInterface
+    private interface RowComparator {
+        int compare(int rowA, int rowB);
+    }
+
+
+    // Grows the columns while rows are added; titles and genres are deduplicated on the way in
+    private static final class Builder {
+
+        private final int userId;
+        private int size;
+        private int[] ids = new int[1024];
+        private int[] years = new int[1024];
+        private String[] titles = new String[1024];
+        private int[] genreCodes = new int[1024];
+        private final BitSet watched = new BitSet();
+        private final List<String> genres = new ArrayList<>();
+        private final Map<String, Integer> genreCodeOf = new HashMap<>();
+        private final Map<String, String> titlePool = new HashMap<>();
+
+        Builder(int userId) {
+            this.userId = userId;
+        }
+
+        void add(int id, String title, String genre, int year, boolean isWatched) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                years = Arrays.copyOf(years, capacity);
+                titles = Arrays.copyOf(titles, capacity);
+                genreCodes = Arrays.copyOf(genreCodes, capacity);
+            }
+            ids[size] = id;
+            years[size] = year;
+            titles[size] = titlePool.computeIfAbsent(title, t -> t);
+            genreCodes[size] = genreCodeOf.computeIfAbsent(genre, g -> {
+                genres.add(g);
+                return genres.size() - 1;
+            });
+            watched.set(size, isWatched);
+            size++;
+        }
+
+        FilmColumnStore build(long version) {
+            return new FilmColumnStore(this, version);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.project.data;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+
+// What part of a user's films to show and in which order.
+// Immutable: the UI builds a new one when the user changes a filter or clicks a column header.
+public final class FilmFilter {
+
+    public static final FilmFilter NONE = new FilmFilter(Set.of(), null, null, null, List.of());
+
+    private final Set<String> genres;   // Empty = any genre
+    private final boolean allGenres;    // true = films with every one of 'genres', false = with any of them
+    private final Integer yearFrom;     // null = no lower bound
+    private final Integer yearTo;       // null = no upper bound
+    private final Boolean watched;      // null = watched or not
+    private final List<SortKey> sortKeys;
+
+    public FilmFilter(Set<String> genres, Integer yearFrom, Integer yearTo, Boolean watched, List<SortKey> sortKeys) {
+        this(genres, false, yearFrom, yearTo, watched, sortKeys);
+    }
+
+
+    // Genre names compare case-insensitively, so "drama" and "Drama" are one genre
+    public FilmFilter(Set<String> genres, boolean allGenres, Integer yearFrom, Integer yearTo, Boolean watched, List<SortKey> sortKeys) {
+        Set<String> distinct = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        distinct.addAll(genres);
+        this.genres = Set.copyOf(distinct);
+        this.allGenres = allGenres;
+        this.yearFrom = yearFrom;
+        this.yearTo = yearTo;
+        this.watched = watched;
+        this.sortKeys = List.copyOf(sortKeys);
+    }
+
+
+    public Set<String> getGenres() { return genres; }
+
+    public boolean isAllGenres() { return allGenres; }
+
+    public Integer getYearFrom() { return yearFrom; }
+
+    public Integer getYearTo() { return yearTo; }
+
+    public Boolean getWatched() { return watched; }
+
+    public List<SortKey> getSortKeys() { return sortKeys; }
+
+
+    public FilmFilter withSortKeys(List<SortKey> newSortKeys) {
+        return new FilmFilter(genres, allGenres, yearFrom, yearTo, watched, newSortKeys);
+    }
+
+
+    // Columns that can be filtered and sorted on, mapped to their SQL names.
+    // Only these names ever end up in generated SQL, user input is always bound as a parameter.
+    public enum Column {
+        TITLE("title"),
+        GENRE("genre"),
+        YEAR("year"),
+        WATCHED("watched");
+
+        private final String sqlName;
+
+        Column(String sqlName) {
+            this.sqlName = sqlName;
+        }
+
+        public String getSqlName() { return sqlName; }
+    }
+
+
+    public record SortKey(Column column, boolean ascending) { }
+}
@@ -0,0 +1,78 @@
+package com.example.project.data;
+
+import com.example.project.metrics.Metrics;
+import com.example.project.metrics.Operation;
+import com.example.project.models.Film;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+// Keyset pagination over a user's films in the order given by a FilmFilter (id last as tie-breaker).
+// Each page continues from the row where the previous one ended, so fetching a page costs the same
+// no matter how deep into the collection it is (no OFFSET). With the default order this is
+// WHERE user_id = ? AND id > ? ORDER BY id, which idx_films_user_id serves directly because SQLite
+// stores the rowid as the last column of every index.
+public final class FilmPager {
+
+    private FilmPager() { }
+
+
+    public static List<Film> firstPage(int userId, FilmFilter filter, int limit) throws SQLException {
+        return query(FilmQueryCompiler.compile(filter, false, false, true), userId, filter, null, limit);
+    }
+
+
+    // Rows that come after 'last' in the filter's order
+    public static List<Film> pageAfter(int userId, FilmFilter filter, Film last, int limit) throws SQLException {
+        return query(FilmQueryCompiler.compile(filter, true, false, true), userId, filter, last, limit);
+    }
+
+
+    // Rows that come before 'first', also returned in the filter's order
+    public static List<Film> pageBefore(int userId, FilmFilter filter, Film first, int limit) throws SQLException {
+        List<Film> films = query(FilmQueryCompiler.compile(filter, true, true, true), userId, filter, first, limit);
+        Collections.reverse(films);
+        return films;
+    }
+
+
+    // Every matching row at once, for the non-paged mode
+    public static List<Film> all(int userId, FilmFilter filter) throws SQLException {
+        return query(FilmQueryCompiler.compile(filter, false, false, false), userId, filter, null, null);
+    }
+
+
+    private static List<Film> query(String sql, int userId, FilmFilter filter, Film cursor, Integer limit) throws SQLException {
+        return Metrics.time(Operation.LOAD, () -> read(sql, userId, filter, cursor, limit));
+    }
+
+
+    private static List<Film> read(String sql, int userId, FilmFilter filter, Film cursor, Integer limit) throws SQLException {
+        List<Film> films = new ArrayList<>(limit == null ? 16 : limit);
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            FilmQueryCompiler.bind(pstmt, userId, filter, cursor, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    films.add(new Film(
+                            rs.getInt("id"),
+                            rs.getString("title"),
+                            rs.getString("genre"),
+                            rs.getInt("year"),
+                            rs.getInt("watched") == 1
+                    ));
+                }
+            }
+        }
+        return films;
+    }
+}
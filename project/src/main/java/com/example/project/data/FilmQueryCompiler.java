@@ -0,0 +1,191 @@
+package com.example.project.data;
+
+import com.example.project.models.Film;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+// Turns a FilmFilter into a parameterized SELECT against 'films'.
+// The SQL only depends on the shape of the filter (which predicates are present, how many genres,
+// the sort columns), never on the values, so it is built once per shape and cached. Values are bound
+// by bind() in exactly the order compile() emitted the placeholders.
+//
+// Paging uses keyset pagination on the full sort order plus id as tie-breaker. For ORDER BY year DESC, id
+// the page after (year = 1999, id = 42) is: WHERE ... AND ((year < ?) OR (year = ? AND id > ?)).
+public final class FilmQueryCompiler {
+
+    private static final String SELECT = "SELECT id, title, genre, year, watched FROM films";
+
+    private static final Map<String, String> cache = new ConcurrentHashMap<>();
+
+
+    private FilmQueryCompiler() { }
+
+
+    // hasCursor: only rows after (or with 'backward', before) a cursor row; limited: ends with LIMIT ?
+    // Backward queries return rows in reverse order, the caller flips them back.
+    public static String compile(FilmFilter filter, boolean hasCursor, boolean backward, boolean limited) {
+        String shape = shapeOf(filter, hasCursor, backward, limited);
+        return cache.computeIfAbsent(shape, key -> build(filter, hasCursor, backward, limited));
+    }
+
+
+    // Binds userId, the filter values, the cursor row's sort values (if any) and the limit (if any)
+    public static void bind(PreparedStatement pstmt, int userId, FilmFilter filter, Film cursor, Integer limit) throws SQLException {
+        bind(pstmt, 1, userId, filter, cursor, limit);
+    }
+
+
+    // Same, for a compiled query embedded in a larger statement whose own parameters come first.
+    // Returns the index of the next free parameter.
+    public static int bind(PreparedStatement pstmt, int firstIndex, int userId, FilmFilter filter, Film cursor, Integer limit)
+            throws SQLException {
+        int index = firstIndex;
+        pstmt.setInt(index++, userId);
+
+        for (String genre : filter.getGenres()) {
+            pstmt.setString(index++, genre);
+        }
+        if (filter.getYearFrom() != null) {
+            pstmt.setInt(index++, filter.getYearFrom());
+        }
+        if (filter.getYearTo() != null) {
+            pstmt.setInt(index++, filter.getYearTo());
+        }
+        if (filter.getWatched() != null) {
+            pstmt.setInt(index++, filter.getWatched() ? 1 : 0);
+        }
+
+        if (cursor != null) {
+            List<String> keys = orderColumns(filter);
+            for (int i = 0; i < keys.size(); i++) {
+                for (int j = 0; j <= i; j++) {
+                    pstmt.setObject(index++, sortValue(cursor, keys.get(j)));
+                }
+            }
+        }
+
+        if (limit != null) {
+            pstmt.setInt(index++, limit);
+        }
+        return index;
+    }
+
+
+    // Number of distinct query shapes compiled so far
+    public static int getCachedShapeCount() {
+        return cache.size();
+    }
+
+
+    private static String build(FilmFilter filter, boolean hasCursor, boolean backward, boolean limited) {
+        StringBuilder sql = new StringBuilder(SELECT).append(" WHERE user_id = ?");
+
+        // Through the film_genres links, so a film tagged "Drama, Comedy" is found by either genre.
+        // For all genres the film needs a link to each of them; the count is part of the shape.
+        if (!filter.getGenres().isEmpty()) {
+            sql.append(" AND id IN (SELECT fg.film_id FROM film_genres fg JOIN genres g ON g.id = fg.genre_id WHERE g.name IN (")
+                    .append(String.join(", ", Collections.nCopies(filter.getGenres().size(), "?")))
+                    .append(')');
+            if (filter.isAllGenres()) {
+                sql.append(" GROUP BY fg.film_id HAVING COUNT(*) = ").append(filter.getGenres().size());
+            }
+            sql.append(')');
+        }
+        if (filter.getYearFrom() != null) {
+            sql.append(" AND year >= ?");
+        }
+        if (filter.getYearTo() != null) {
+            sql.append(" AND year <= ?");
+        }
+        if (filter.getWatched() != null) {
+            sql.append(" AND watched = ?");
+        }
+
+        List<String> keys = orderColumns(filter);
+        List<Boolean> ascending = orderDirections(filter, backward);
+
+        if (hasCursor) {
+            List<String> alternatives = new ArrayList<>();
+            for (int i = 0; i < keys.size(); i++) {
+                StringBuilder alternative = new StringBuilder("(");
+                for (int j = 0; j < i; j++) {
+                    alternative.append(keys.get(j)).append(" = ? AND ");
+                }
+                alternative.append(keys.get(i)).append(ascending.get(i) ? " > ?" : " < ?").append(')');
+                alternatives.add(alternative.toString());
+            }
+            sql.append(" AND (").append(String.join(" OR ", alternatives)).append(')');
+        }
+
+        sql.append(" ORDER BY ");
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(keys.get(i)).append(ascending.get(i) ? " ASC" : " DESC");
+        }
+
+        if (limited) {
+            sql.append(" LIMIT ?");
+        }
+        return sql.toString();
+    }
+
+
+    // The user's sort columns followed by id, which makes the order total so a cursor is unambiguous
+    private static List<String> orderColumns(FilmFilter filter) {
+        List<String> columns = new ArrayList<>();
+        for (FilmFilter.SortKey key : filter.getSortKeys()) {
+            columns.add(key.column().getSqlName());
+        }
+        columns.add("id");
+        return columns;
+    }
+
+
+    private static List<Boolean> orderDirections(FilmFilter filter, boolean backward) {
+        List<Boolean> directions = new ArrayList<>();
+        for (FilmFilter.SortKey key : filter.getSortKeys()) {
+            directions.add(key.ascending() != backward);
+        }
+        directions.add(!backward);
+        return directions;
+    }
+
+
+    private static Object sortValue(Film film, String column) {
+        return switch (column) {
+            case "title" -> film.getTitle();
+            case "genre" -> film.getGenre();
+            case "year" -> film.getYear();
+            case "watched" -> film.isWatched() ? 1 : 0;
+            case "id" -> film.getId();
+            default -> throw new IllegalArgumentException("Unknown sort column: " + column);
+        };
+    }
+
+
+    private static String shapeOf(FilmFilter filter, boolean hasCursor, boolean backward, boolean limited) {
+        StringBuilder shape = new StringBuilder();
+        shape.append("g").append(filter.getGenres().size())
+                .append(filter.isAllGenres() ? "|all" : "")
+                .append(filter.getYearFrom() != null ? "|from" : "")
+                .append(filter.getYearTo() != null ? "|to" : "")
+                .append(filter.getWatched() != null ? "|watched" : "")
+                .append("|sort:");
+        for (FilmFilter.SortKey key : filter.getSortKeys()) {
+            shape.append(key.column().getSqlName()).append(key.ascending() ? '+' : '-').append(',');
+        }
+        shape.append(hasCursor ? "|cursor" : "")
+                .append(backward ? "|backward" : "")
+                .append(limited ? "|limit" : "");
+        return shape.toString();
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.project.data;
+
+import com.example.project.metrics.Metrics;
+import com.example.project.metrics.Operation;
+import com.example.project.models.Film;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+// Every write to the 'films' table, all run on DatabaseManager's writer connection. Reads go through
+// FilmPager and FilmSearch. The writer keeps its prepared statements cached, so the SQL below is compiled
+// once rather than on every call.
+// The batch variants taking a Connection run inside the caller's transaction on the writer connection
+// (see inTransaction()); the others use their own and are timed in Metrics (the caller of a Connection
+// variant times its whole transaction instead, and calls committed() after committing it, unless it
+// went through inTransaction()).
+public final class FilmRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO films (title, genre, year, watched, user_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE films SET title = ?, genre = ?, year = ?, watched = ? WHERE id = ? AND user_id = ?";
+    private static final String DELETE_SQL = "DELETE FROM films WHERE id = ? AND user_id = ?";
+
+    // Bumped after every committed write, so in-memory copies (FilmColumnStore) can tell they are stale
+    private static final AtomicLong version = new AtomicLong();
+
+
+    private FilmRepository() { }
+
+
+    public static long getVersion() {
+        return version.get();
+    }
+
+
+    // For callers committing a transaction of their own (see the Connection variants below)
+    public static void committed() {
+        version.incrementAndGet();
+    }
+
+
+    // Returns the id SQLite assigned to the new row
+    public static int insert(int userId, Film film) throws SQLException {
+        return Metrics.time(Operation.INSERT, () -> DatabaseManager.write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                bindInsert(pstmt, userId, film);
+                pstmt.executeUpdate();
+                committed();
+
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (!keys.next()) {
+                        throw new SQLException("Insert did not return a generated id");
+                    }
+                    return keys.getInt(1);
+                }
+            }
+        }));
+    }
+
+
+    // Batch insert in one transaction. The generated ids are not read back, use insert() when they are needed.
+    public static void insertAll(int userId, List<Film> films) throws SQLException {
+        Metrics.run(Operation.INSERT, () -> inTransaction(conn -> {
+            insertAll(conn, userId, films);
+            return null;
+        }));
+    }
+
+
+    public static void insertAll(Connection conn, int userId, List<Film> films) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+            for (Film film : films) {
+                bindInsert(pstmt, userId, film);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+
+    // Writes every column of the film; returns false if the user has no such film (any more)
+    public static boolean update(int userId, Film film) throws SQLException {
+        return Metrics.time(Operation.UPDATE, () -> DatabaseManager.write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
+                bindUpdate(pstmt, userId, film);
+                boolean updated = pstmt.executeUpdate() > 0;
+                committed();
+                return updated;
+            }
+        }));
+    }
+
+
+    public static void updateAll(Connection conn, int userId, Collection<Film> films) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
+            for (Film film : films) {
+                bindUpdate(pstmt, userId, film);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+
+    public static boolean delete(int userId, int filmId) throws SQLException {
+        return Metrics.time(Operation.DELETE, () -> DatabaseManager.write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(DELETE_SQL)) {
+                pstmt.setInt(1, filmId);
+                pstmt.setInt(2, userId);
+                boolean deleted = pstmt.executeUpdate() > 0;
+                committed();
+                return deleted;
+            }
+        }));
+    }
+
+
+    // Batch delete in one transaction; returns the number of films that were actually deleted
+    public static int deleteAll(int userId, Collection<Integer> filmIds) throws SQLException {
+        return Metrics.time(Operation.DELETE, () -> inTransaction(conn -> {
+            int deleted = 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(DELETE_SQL)) {
+                for (int filmId : filmIds) {
+                    pstmt.setInt(1, filmId);
+                    pstmt.setInt(2, userId);
+                    pstmt.addBatch();
+                }
+                for (int count : pstmt.executeBatch()) {
+                    deleted += Math.max(count, 0);
+                }
+            }
+            return deleted;
+        }));
+    }
+
+
+    // Sets 'watched' on every film matching the filter with a single UPDATE; returns the number of rows changed
+    public static int setWatched(int userId, FilmFilter filter, boolean watched) throws SQLException {
+        String sql = "UPDATE films SET watched = ? WHERE id IN (SELECT id FROM ("
+                + FilmQueryCompiler.compile(filter, false, false, false) + "))";
+
+        return Metrics.time(Operation.UPDATE, () -> DatabaseManager.write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, watched ? 1 : 0);
+                FilmQueryCompiler.bind(pstmt, 2, userId, filter, null, null);
+                int updated = pstmt.executeUpdate();
+                committed();
+                return updated;
+            }
+        }));
+    }
+
+
+    private static void bindInsert(PreparedStatement pstmt, int userId, Film film) throws SQLException {
+        pstmt.setString(1, film.getTitle());
+        pstmt.setString(2, film.getGenre());
+        pstmt.setInt(3, film.getYear());
+        pstmt.setInt(4, film.isWatched() ? 1 : 0);
+        pstmt.setInt(5, userId);
+    }
+
+
+    private static void bindUpdate(PreparedStatement pstmt, int userId, Film film) throws SQLException {
+        pstmt.setString(1, film.getTitle());
+        pstmt.setString(2, film.getGenre());
+        pstmt.setInt(3, film.getYear());
+        pstmt.setInt(4, film.isWatched() ? 1 : 0);
+        pstmt.setInt(5, film.getId());
+        pstmt.setInt(6, userId);
+    }
+
+
+    // Runs 'work' in one transaction on the writer connection and returns its result.
+    // For transactions that change films; other tables use DatabaseManager.inTransaction().
+    public static <T> T inTransaction(DatabaseWriter.SqlWork<T> work) throws SQLException {
+        T result = DatabaseManager.inTransaction(work);
+        committed();
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.project.data;
+
+import com.example.project.metrics.Metrics;
+import com.example.project.metrics.Operation;
+import com.example.project.models.Film;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+
+// Full-text search over the titles and genres of a user's films, backed by the films_fts FTS5 table
+public final class FilmSearch {
+
+    // Title matches weigh more than genre matches; bm25() is lower for better matches
+    private static final String SEARCH_SQL = """
+            SELECT f.id, f.title, f.genre, f.year, f.watched
+            FROM films_fts
+            JOIN films f ON f.id = films_fts.rowid
+            WHERE films_fts MATCH ? AND f.user_id = ?
+            ORDER BY bm25(films_fts, 4.0, 1.0)
+            LIMIT ?
+            """;
+
+
+    private FilmSearch() { }
+
+
+    // Every word of the input must match the start of a word in the title or genre, best matches first.
+    // isCancelled is checked while reading rows, so a search that became obsolete stops early.
+    public static List<Film> search(int userId, String text, int limit, BooleanSupplier isCancelled) throws SQLException {
+        String matchQuery = toMatchQuery(text);
+        if (matchQuery.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return Metrics.time(Operation.SEARCH, () -> read(userId, matchQuery, limit, isCancelled));
+    }
+
+
+    private static List<Film> read(int userId, String matchQuery, int limit, BooleanSupplier isCancelled) throws SQLException {
+        List<Film> films = new ArrayList<>();
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SEARCH_SQL)) {
+
+            pstmt.setString(1, matchQuery);
+            pstmt.setInt(2, userId);
+            pstmt.setInt(3, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next() && !isCancelled.getAsBoolean()) {
+                    films.add(new Film(
+                            rs.getInt("id"),
+                            rs.getString("title"),
+                            rs.getString("genre"),
+                            rs.getInt("year"),
+                            rs.getInt("watched") == 1
+                    ));
+                }
+            }
+        }
+        return films;
+    }
+
+
+    // "star wa" -> "star"* "wa"*
+    // Splitting on the same characters the unicode61 tokenizer splits on means user input can never
+    // contain FTS5 syntax (quotes, AND/OR/NEAR, column filters) that would make the query fail.
+    static String toMatchQuery(String text) {
+        StringBuilder query = new StringBuilder();
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (!query.isEmpty()) {
+                query.append(' ');
+            }
+            query.append('"').append(word).append("\"*");
+        }
+        return query.toString();
+    }
+}
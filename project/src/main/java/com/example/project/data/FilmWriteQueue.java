@@ -0,0 +1,234 @@
+package com.example.project.data;
+
+import com.example.project.metrics.Metrics;
+import com.example.project.metrics.Operation;
+import com.example.project.metrics.UpdateEvent;
+import com.example.project.models.Film;
+import com.example.project.models.FilmData;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+
+// Write-behind queue for film updates (watched toggles and edits).
+// Changes are kept per film id, so clicking the same checkbox five times costs one UPDATE,
+// and everything pending is written in a single transaction by a background worker.
+// A flush happens once no new change arrived for DEBOUNCE_MS, at the latest MAX_DELAY_MS after
+// the first pending change, or immediately when MAX_PENDING changes have piled up.
+// A batch that fails is retried after MAX_DELAY_MS, doubling up to MAX_RETRY_DELAY_MS, and its
+// changes are dropped (and reported) once they have failed MAX_ATTEMPTS times.
+public final class FilmWriteQueue {
+
+    private static final long DEBOUNCE_MS = Long.getLong("films.writes.debounceMs", 300L);
+    private static final long MAX_DELAY_MS = Long.getLong("films.writes.maxDelayMs", 2_000L);
+    private static final int MAX_PENDING = Integer.getInteger("films.writes.maxPending", 200);
+    private static final int MAX_ATTEMPTS = Math.max(1, Integer.getInteger("films.writes.maxAttempts", 5));
+    private static final long MAX_RETRY_DELAY_MS = Long.getLong("films.writes.maxRetryDelayMs", 60_000L);
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private static final Map<Integer, PendingWrite> pending = new LinkedHashMap<>(); // guarded by the class lock
+    private static final Object flushLock = new Object(); // keeps batches in order
+
+    private static ScheduledExecutorService worker;
+    private static ScheduledFuture<?> scheduledFlush;
+    private static long firstPendingAt;
+    private static boolean stopped; // After shutdown() nothing is queued or retried and no worker is started
+
+
+    private FilmWriteQueue() { }
+
+
+    // Snapshot of the film taken now; later changes to the same film simply replace it
+    public static synchronized void enqueue(int userId, FilmData film) {
+        if (film.getId() <= 0) {
+            return; // Not inserted yet, the INSERT will carry the current values
+        }
+        if (stopped) {
+            System.err.println("Film " + film.getId() + " changed after shutdown, the change is not written");
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (pending.isEmpty()) {
+            firstPendingAt = now;
+        }
+        pending.put(film.getId(), new PendingWrite(userId,
+                new Film(film.getId(), film.getTitle(), film.getGenre(), film.getYear(), film.isWatched()), 0));
+
+        long delay = pending.size() >= MAX_PENDING
+                ? 0
+                : Math.min(DEBOUNCE_MS, Math.max(0, firstPendingAt + MAX_DELAY_MS - now));
+        schedule(delay);
+    }
+
+
+    // Drops a pending change, e.g. because the film is being deleted anyway
+    public static synchronized void discard(int filmId) {
+        pending.remove(filmId);
+    }
+
+
+    public static synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+
+    // Asks the worker to write everything now without waiting for it (used on logout)
+    public static synchronized void flushAsync() {
+        if (!pending.isEmpty() && !stopped) {
+            schedule(0);
+        }
+    }
+
+
+    // Writes everything pending on the calling thread. Called before full reloads and on shutdown,
+    // so neither can miss a change that is still sitting in the queue.
+    public static void flush() {
+        synchronized (flushLock) {
+            List<PendingWrite> batch;
+            synchronized (FilmWriteQueue.class) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+            }
+
+            try {
+                writeBatch(batch);
+            } catch (SQLException e) {
+                Metrics.recordWriteBehindFailure();
+                requeue(batch, e);
+            }
+        }
+    }
+
+
+    private static void writeBatch(List<PendingWrite> batch) throws SQLException {
+        // Normally all from one user, but a logout can leave another user's changes in the same batch
+        Map<Integer, List<Film>> filmsByUser = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            filmsByUser.computeIfAbsent(write.userId(), userId -> new ArrayList<>()).add(write.film());
+        }
+
+        UpdateEvent event = new UpdateEvent();
+        event.begin();
+
+        Metrics.run(Operation.UPDATE, () -> FilmRepository.inTransaction(conn -> {
+            for (Map.Entry<Integer, List<Film>> entry : filmsByUser.entrySet()) {
+                FilmRepository.updateAll(conn, entry.getKey(), entry.getValue());
+            }
+            return null;
+        }));
+
+        // User id 0 marks a batch that spans users
+        int userId = filmsByUser.size() == 1 ? filmsByUser.keySet().iterator().next() : 0;
+        event.commit(userId, batch.size());
+    }
+
+
+    // A failed batch goes back into the queue unless a newer change for the same film arrived meanwhile.
+    // Changes that have used up their attempts are dropped instead; the first failure and the drop print
+    // the whole stack trace, the retries in between only a line.
+    private static synchronized void requeue(List<PendingWrite> batch, SQLException error) {
+        List<PendingWrite> dropped = new ArrayList<>();
+        int attempts = 0;
+        for (PendingWrite write : batch) {
+            PendingWrite retry = write.failedOnce();
+            if (stopped || retry.attempts() >= MAX_ATTEMPTS) {
+                dropped.add(write);
+            } else if (!pending.containsKey(write.film().getId())) {
+                if (pending.isEmpty()) {
+                    firstPendingAt = System.currentTimeMillis();
+                }
+                pending.put(write.film().getId(), retry);
+                attempts = Math.max(attempts, retry.attempts());
+            }
+        }
+
+        if (!dropped.isEmpty()) {
+            Metrics.recordWriteBehindDropped(dropped.size());
+            System.err.println("Dropped " + dropped.size() + " film change(s) that could not be written, film ids "
+                    + dropped.stream().map(write -> write.film().getId()).toList());
+            error.printStackTrace();
+        } else if (attempts <= 1) {
+            error.printStackTrace();
+        } else {
+            System.err.println("Film write-behind failed again (attempt " + attempts + " of " + MAX_ATTEMPTS + "): " + error.getMessage());
+        }
+
+        if (attempts > 0 && !stopped) {
+            schedule(retryDelay(attempts));
+        }
+    }
+
+
+    // MAX_DELAY_MS after the first failure, doubling with each further one
+    private static long retryDelay(int attempts) {
+        long delay = MAX_DELAY_MS << Math.min(attempts - 1, 20);
+        return Math.min(delay, Math.max(MAX_DELAY_MS, MAX_RETRY_DELAY_MS));
+    }
+
+
+    private static void schedule(long delayMillis) {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+        }
+        scheduledFlush = getWorker().schedule(FilmWriteQueue::flush, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+
+    private static ScheduledExecutorService getWorker() {
+        if (worker == null) {
+            worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "film-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return worker;
+    }
+
+
+    // Called once when the application exits: lets a flush that is already running finish, so its batch
+    // is committed or reported like any other, then writes what is left on the calling thread
+    public static void shutdown() {
+        ScheduledExecutorService toStop;
+        synchronized (FilmWriteQueue.class) {
+            toStop = worker;
+            worker = null;
+            stopped = true;
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false); // Not started yet: flush() below writes its changes
+                scheduledFlush = null;
+            }
+        }
+        if (toStop != null) {
+            toStop.shutdown();
+            try {
+                if (!toStop.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    System.err.println("Film write-behind did not finish within " + SHUTDOWN_TIMEOUT_MS + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+
+    // 'film' is a private copy, the row in the table may keep changing; 'attempts' counts failed writes
+    private record PendingWrite(int userId, Film film, int attempts) {
+
+        PendingWrite failedOnce() {
+            return new PendingWrite(userId, film, attempts + 1);
+        }
+    }
+}
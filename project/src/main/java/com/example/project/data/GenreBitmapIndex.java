@@ -0,0 +1,127 @@
+package com.example.project.data;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+
+// Genre -> the rows of a FilmColumnStore that have it, one BitSet per genre, so "any of these genres"
+// is an OR of a few bitsets and "all of them" an AND, instead of a pass over every film.
+// A film has each comma separated genre of its genre text, the same rule as the film_genres table
+// (migration 4 in SchemaMigrator). Built once with its store and immutable, like the store.
+// Opt-in like the store (-Dfilms.paging=false -Dfilms.columnStore=true); by default genre filters run as
+// SQL over the film_genres table and its idx_film_genres_genre index.
+public final class GenreBitmapIndex {
+
+    private final int size;
+    private final List<String> names = new ArrayList<>();           // First spelling seen, in first-seen order
+    private final Map<String, BitSet> rowsByKey = new HashMap<>();  // Keyed on the lower-cased name
+
+
+    // 'genreCodes' are codes into 'genreTexts', one per row
+    GenreBitmapIndex(int size, int[] genreCodes, String[] genreTexts) {
+        this.size = size;
+
+        // Each distinct genre text is split once, not once per film
+        BitSet[][] rowsOfCode = new BitSet[genreTexts.length][];
+        for (int code = 0; code < genreTexts.length; code++) {
+            List<String> parts = split(genreTexts[code]);
+            rowsOfCode[code] = new BitSet[parts.size()];
+            for (int i = 0; i < parts.size(); i++) {
+                String name = parts.get(i);
+                rowsOfCode[code][i] = rowsByKey.computeIfAbsent(keyOf(name), key -> {
+                    names.add(name);
+                    return new BitSet(size);
+                });
+            }
+        }
+
+        for (int row = 0; row < size; row++) {
+            for (BitSet rows : rowsOfCode[genreCodes[row]]) {
+                rows.set(row);
+            }
+        }
+    }
+
+
+    // The genres of one genre text: split at commas, trimmed of spaces, empty parts dropped.
+    // Matches the film_genre_names view, whose trim() also only removes spaces.
+    static List<String> split(String genreText) {
+        List<String> parts = new ArrayList<>(1);
+        int start = 0;
+        while (start <= genreText.length()) {
+            int end = genreText.indexOf(',', start);
+            if (end < 0) {
+                end = genreText.length();
+            }
+            int from = start;
+            int to = end;
+            while (from < to && genreText.charAt(from) == ' ') {
+                from++;
+            }
+            while (to > from && genreText.charAt(to - 1) == ' ') {
+                to--;
+            }
+            if (from < to) {
+                String part = genreText.substring(from, to);
+                if (parts.stream().noneMatch(part::equalsIgnoreCase)) {
+                    parts.add(part);
+                }
+            }
+            start = end + 1;
+        }
+        return parts;
+    }
+
+
+    public List<String> getGenres() { return List.copyOf(names); }
+
+
+    public int count(String genre) {
+        BitSet rows = rowsByKey.get(keyOf(genre));
+        return rows != null ? rows.cardinality() : 0;
+    }
+
+
+    // A new BitSet each time, the caller may change it
+    public BitSet rowsWith(String genre) {
+        BitSet rows = rowsByKey.get(keyOf(genre));
+        return rows != null ? (BitSet) rows.clone() : new BitSet(size);
+    }
+
+
+    public BitSet rowsWithAny(Collection<String> genres) {
+        BitSet result = new BitSet(size);
+        for (String genre : genres) {
+            BitSet rows = rowsByKey.get(keyOf(genre));
+            if (rows != null) {
+                result.or(rows);
+            }
+        }
+        return result;
+    }
+
+
+    // Every row if 'genres' is empty
+    public BitSet rowsWithAll(Collection<String> genres) {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+        for (String genre : genres) {
+            BitSet rows = rowsByKey.get(keyOf(genre));
+            if (rows == null) {
+                return new BitSet(size); // Nobody has this genre
+            }
+            result.and(rows);
+        }
+        return result;
+    }
+
+
+    private static String keyOf(String genre) {
+        return genre.toLowerCase(Locale.ROOT);
+    }
+}
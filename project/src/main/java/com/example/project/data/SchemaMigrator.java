@@ -0,0 +1,174 @@
+package com.example.project.data;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+
+// Brings the database schema up to date.
+// The applied version is stored in SQLite's own PRAGMA user_version, every migration runs in its
+// own transaction, and a migration is never changed once released: add a new one instead.
+final class SchemaMigrator {
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "users and films tables",
+                    // Same statements the app has always run, so existing databases pass through unchanged
+                    """
+                    CREATE TABLE IF NOT EXISTS users (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        username TEXT NOT NULL UNIQUE,
+                        password TEXT NOT NULL
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS films (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        title TEXT NOT NULL,
+                        genre TEXT NOT NULL,
+                        year INTEGER NOT NULL,
+                        watched INTEGER NOT NULL,
+                        user_id INTEGER NOT NULL,
+                        FOREIGN KEY (user_id) REFERENCES users(id)
+                    )
+                    """),
+
+            new Migration(2, "indexes for per-user film queries",
+                    "CREATE INDEX IF NOT EXISTS idx_films_user_id ON films(user_id)",
+                    "CREATE INDEX IF NOT EXISTS idx_films_user_title ON films(user_id, title)",
+                    "ANALYZE"),
+
+            new Migration(3, "full-text search over titles and genres",
+                    // External-content FTS5 table: the text lives only in 'films', the index refers to it by rowid
+                    """
+                    CREATE VIRTUAL TABLE IF NOT EXISTS films_fts USING fts5(
+                        title, genre,
+                        content = 'films', content_rowid = 'id',
+                        tokenize = 'unicode61 remove_diacritics 2'
+                    )
+                    """,
+                    """
+                    CREATE TRIGGER IF NOT EXISTS films_fts_insert AFTER INSERT ON films BEGIN
+                        INSERT INTO films_fts(rowid, title, genre) VALUES (new.id, new.title, new.genre);
+                    END
+                    """,
+                    """
+                    CREATE TRIGGER IF NOT EXISTS films_fts_delete AFTER DELETE ON films BEGIN
+                        INSERT INTO films_fts(films_fts, rowid, title, genre) VALUES ('delete', old.id, old.title, old.genre);
+                    END
+                    """,
+                    // Updates always set every column, so only touch the index when the text really changed
+                    """
+                    CREATE TRIGGER IF NOT EXISTS films_fts_update AFTER UPDATE OF title, genre ON films
+                    WHEN old.title IS NOT new.title OR old.genre IS NOT new.genre BEGIN
+                        INSERT INTO films_fts(films_fts, rowid, title, genre) VALUES ('delete', old.id, old.title, old.genre);
+                        INSERT INTO films_fts(rowid, title, genre) VALUES (new.id, new.title, new.genre);
+                    END
+                    """,
+                    "INSERT INTO films_fts(films_fts) VALUES ('rebuild')"),
+
+            new Migration(4, "genres lookup table and film_genres links",
+                    // films.genre stays the text the user typed; a film has every comma separated genre in it.
+                    // Names compare case-insensitively, the first spelling seen is the one kept.
+                    """
+                    CREATE TABLE IF NOT EXISTS genres (
+                        id INTEGER PRIMARY KEY,
+                        name TEXT NOT NULL UNIQUE COLLATE NOCASE
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS film_genres (
+                        film_id INTEGER NOT NULL REFERENCES films(id),
+                        genre_id INTEGER NOT NULL REFERENCES genres(id),
+                        PRIMARY KEY (film_id, genre_id)
+                    ) WITHOUT ROWID
+                    """,
+                    "CREATE INDEX IF NOT EXISTS idx_film_genres_genre ON film_genres(genre_id, film_id)",
+                    // The split rule, in one place for the triggers and the backfill (GenreBitmapIndex.split() is
+                    // the same in Java). json_quote() escapes the text and never emits a comma of its own, so
+                    // turning each comma into '","' always gives a valid JSON array of the parts.
+                    """
+                    CREATE VIEW IF NOT EXISTS film_genre_names AS
+                    SELECT f.id AS film_id, trim(part.value) AS name
+                    FROM films f, json_each('[' || replace(json_quote(f.genre), ',', '","') || ']') part
+                    WHERE trim(part.value) <> ''
+                    """,
+                    """
+                    CREATE TRIGGER IF NOT EXISTS film_genres_insert AFTER INSERT ON films BEGIN
+                        INSERT OR IGNORE INTO genres(name) SELECT name FROM film_genre_names WHERE film_id = new.id;
+                        INSERT OR IGNORE INTO film_genres(film_id, genre_id)
+                            SELECT new.id, g.id FROM film_genre_names n JOIN genres g ON g.name = n.name WHERE n.film_id = new.id;
+                    END
+                    """,
+                    """
+                    CREATE TRIGGER IF NOT EXISTS film_genres_delete AFTER DELETE ON films BEGIN
+                        DELETE FROM film_genres WHERE film_id = old.id;
+                    END
+                    """,
+                    """
+                    CREATE TRIGGER IF NOT EXISTS film_genres_update AFTER UPDATE OF genre ON films
+                    WHEN old.genre IS NOT new.genre BEGIN
+                        DELETE FROM film_genres WHERE film_id = old.id;
+                        INSERT OR IGNORE INTO genres(name) SELECT name FROM film_genre_names WHERE film_id = new.id;
+                        INSERT OR IGNORE INTO film_genres(film_id, genre_id)
+                            SELECT new.id, g.id FROM film_genre_names n JOIN genres g ON g.name = n.name WHERE n.film_id = new.id;
+                    END
+                    """,
+                    "INSERT OR IGNORE INTO genres(name) SELECT name FROM film_genre_names ORDER BY film_id",
+                    "INSERT OR IGNORE INTO film_genres(film_id, genre_id) SELECT n.film_id, g.id FROM film_genre_names n JOIN genres g ON g.name = n.name",
+                    "ANALYZE")
+    );
+
+
+    private SchemaMigrator() { }
+
+
+    static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+    }
+
+
+    static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+
+    // Returns the number of migrations that were applied
+    static int migrate(Connection conn) throws SQLException {
+        int version = currentVersion(conn);
+        int applied = 0;
+
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version() <= version) {
+                continue;
+            }
+
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : migration.statements()) {
+                    stmt.execute(sql);
+                }
+                // PRAGMA does not accept bind parameters; the version is our own constant
+                stmt.execute("PRAGMA user_version = " + migration.version());
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw new SQLException("Migration " + migration.version() + " (" + migration.description() + ") failed", e);
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+
+            System.out.println("Applied schema migration " + migration.version() + ": " + migration.description());
+            applied++;
+        }
+        return applied;
+    }
+
+
+    private record Migration(int version, String description, String... statements) { }
+}
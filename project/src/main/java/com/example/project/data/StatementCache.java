@@ -0,0 +1,130 @@
+package com.example.project.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+
+// Prepared statements of one physical connection, kept across borrows so each SQL string is compiled
+// by SQLite once per connection instead of on every call. Beyond maxSize the least recently used
+// statements that are not handed out are closed.
+final class StatementCache {
+
+    private final Connection connection;
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // access order = LRU
+
+
+    StatementCache(Connection connection, int maxSize, LongAdder hits, LongAdder misses) {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+
+    // autoGeneratedKeys is Statement.RETURN_GENERATED_KEYS / NO_GENERATED_KEYS, or -1 for prepareStatement(sql).
+    // Returns null if that statement is already handed out (the same SQL open twice at once):
+    // the caller then prepares a separate, uncached one.
+    synchronized Entry acquire(String sql, int autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        Entry entry = entries.get(key);
+
+        if (entry != null && entry.statement.isClosed()) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry != null) {
+            if (entry.inUse) {
+                return null;
+            }
+            hits.increment();
+            entry.inUse = true;
+            return entry;
+        }
+
+        misses.increment();
+        PreparedStatement statement = autoGeneratedKeys == -1
+                ? connection.prepareStatement(sql)
+                : connection.prepareStatement(sql, autoGeneratedKeys);
+        entry = new Entry(key, statement);
+        entry.inUse = true;
+        entries.put(key, entry);
+        evictOverflow();
+        return entry;
+    }
+
+
+    // Resets the statement for its next user; one that cannot be reset is dropped instead
+    synchronized void release(Entry entry) {
+        try {
+            ResultSet open = entry.statement.getResultSet();
+            if (open != null) {
+                open.close();
+            }
+            entry.statement.clearParameters();
+            entry.statement.clearBatch();
+            entry.inUse = false;
+        } catch (SQLException e) {
+            entries.remove(entry.key);
+            closeQuietly(entry.statement);
+            return;
+        }
+        evictOverflow();
+    }
+
+
+    synchronized void closeAll() {
+        entries.values().forEach(entry -> closeQuietly(entry.statement));
+        entries.clear();
+    }
+
+
+    private void evictOverflow() {
+        List<Entry> evicted = new ArrayList<>();
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() - evicted.size() > maxSize && it.hasNext()) {
+            Entry entry = it.next();
+            if (!entry.inUse) {
+                evicted.add(entry);
+            }
+        }
+        for (Entry entry : evicted) {
+            entries.remove(entry.key);
+            closeQuietly(entry.statement);
+        }
+    }
+
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+
+    private record Key(String sql, int autoGeneratedKeys) { }
+
+
+    static final class Entry {
+        private final Key key;
+        final PreparedStatement statement;
+        private boolean inUse; // guarded by the cache
+
+        private Entry(Key key, PreparedStatement statement) {
+            this.key = key;
+            this.statement = statement;
+        }
+    }
+}
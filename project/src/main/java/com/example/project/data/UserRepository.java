@@ -0,0 +1,99 @@
+package com.example.project.data;
+
+import com.example.project.metrics.Metrics;
+import com.example.project.metrics.Operation;
+import com.example.project.models.User;
+import com.example.project.services.PasswordHasher;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+
+// Every query against the 'users' table. The 'password' column holds what PasswordHasher made of the
+// password (or, for accounts that have not logged in since hashing was introduced, the plaintext);
+// checking it is AuthService's job, this class only reads and writes it.
+public final class UserRepository {
+
+    private static final String FIND_BY_USERNAME_SQL = "SELECT id, username, password FROM users WHERE username = ?";
+    private static final String INSERT_SQL = "INSERT INTO users (username, password) VALUES (?, ?)";
+    private static final String UPDATE_PASSWORD_SQL = "UPDATE users SET password = ? WHERE id = ?";
+
+
+    private UserRepository() { }
+
+
+    // Returns null if there is no such user
+    public static User findByUsername(String username) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(FIND_BY_USERNAME_SQL)) {
+
+            pstmt.setString(1, username);
+            return readUser(pstmt);
+        }
+    }
+
+
+    // Returns the new user's id. Throws an SQLException mentioning UNIQUE if the username is taken.
+    public static int insert(String username, String passwordHash) throws SQLException {
+        return DatabaseManager.write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, username);
+                pstmt.setString(2, passwordHash);
+                pstmt.executeUpdate();
+
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (!keys.next()) {
+                        throw new SQLException("Insert did not return a generated id");
+                    }
+                    return keys.getInt(1);
+                }
+            }
+        });
+    }
+
+
+    public static void updatePassword(int userId, String passwordHash) throws SQLException {
+        DatabaseManager.write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_PASSWORD_SQL)) {
+                pstmt.setString(1, passwordHash);
+                pstmt.setInt(2, userId);
+                return pstmt.executeUpdate();
+            }
+        });
+    }
+
+
+    // Batch insert in one transaction; the generated ids are not read back.
+    // The users hold plaintext passwords, hashed here like AuthService.register() does. Hashing is slow
+    // on purpose, so it runs on all cores and before the transaction, not on the writer thread.
+    public static void insertAll(List<User> users) throws SQLException {
+        List<String> hashes = users.parallelStream()
+                .map(user -> PasswordHasher.hash(user.getPassword()))
+                .toList();
+
+        Metrics.run(Operation.REGISTER, () -> DatabaseManager.inTransaction(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+                for (int i = 0; i < users.size(); i++) {
+                    pstmt.setString(1, users.get(i).getUsername());
+                    pstmt.setString(2, hashes.get(i));
+                    pstmt.addBatch();
+                }
+                return pstmt.executeBatch();
+            }
+        }));
+    }
+
+
+    private static User readUser(PreparedStatement pstmt) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
+            if (!rs.next()) {
+                return null;
+            }
+            return new User(rs.getInt("id"), rs.getString("username"), rs.getString("password"));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.project.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+
+// Streaming RFC 4180 reader: one record at a time, quoted fields may contain commas,
+// doubled quotes and line breaks. Both \n and \r\n end a record.
+final class CsvReader {
+
+    private static final int NOTHING = -2;
+
+    private final Reader in;
+    private int pushedBack = NOTHING;
+    private long recordNumber;
+
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+
+    // Returns the next record, or null at the end of the input
+    List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStart = true;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field in record " + (recordNumber + 1));
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next; // Handle the character after the closing quote normally
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+                c = read();
+                continue;
+            } else if (c == '\r') {
+                int next = read();
+                if (next != '\n') {
+                    pushedBack = next;
+                }
+                break;
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else {
+                field.append((char) c);
+            }
+            fieldStart = false;
+            c = read();
+        }
+
+        fields.add(field.toString());
+        recordNumber++;
+        return fields;
+    }
+
+
+    // 1-based number of the record returned last
+    long getRecordNumber() {
+        return recordNumber;
+    }
+
+
+    private int read() throws IOException {
+        if (pushedBack != NOTHING) {
+            int c = pushedBack;
+            pushedBack = NOTHING;
+            return c;
+        }
+        return in.read();
+    }
+}
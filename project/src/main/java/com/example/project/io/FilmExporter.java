@@ -0,0 +1,206 @@
+package com.example.project.io;
+
+import com.example.project.data.DatabaseManager;
+import com.example.project.data.FilmFilter;
+import com.example.project.data.FilmQueryCompiler;
+import com.example.project.data.FilmWriteQueue;
+import com.example.project.metrics.Metrics;
+import com.example.project.metrics.Operation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+
+
+// Writes a user's films (all of them, or those matching a FilmFilter) to CSV or JSON Lines.
+// Rows go straight from a forward-only cursor into a buffered writer on a file channel,
+// so memory use does not depend on the size of the collection.
+// The output is written to a temporary file next to the target and moved into place when complete,
+// so a failed or cancelled export never leaves a truncated file behind.
+public final class FilmExporter {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    public enum Format { CSV, JSON_LINES }
+
+
+    public interface Listener {
+        void progress(long exported, long total);
+    }
+
+
+    private FilmExporter() { }
+
+
+    // CSV for *.csv, JSON Lines for everything else (*.jsonl, *.ndjson, *.json)
+    public static Format formatOf(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? Format.CSV : Format.JSON_LINES;
+    }
+
+
+    // Returns the number of rows written, or -1 if the export was cancelled
+    public static long export(Path file, Format format, int userId, FilmFilter filter, Listener listener,
+                              BooleanSupplier isCancelled) throws IOException, SQLException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            long exported = write(file, format, userId, filter, listener, isCancelled);
+            failed = false;
+            return exported;
+        } finally {
+            Metrics.record(Operation.EXPORT, start, failed);
+        }
+    }
+
+
+    private static long write(Path file, Format format, int userId, FilmFilter filter, Listener listener,
+                              BooleanSupplier isCancelled) throws IOException, SQLException {
+
+        FilmWriteQueue.flush(); // Export what the user sees, including changes still queued
+
+        String sql = FilmQueryCompiler.compile(filter, false, false, false);
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        long exported = 0;
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            long total = count(conn, sql, userId, filter);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                 FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+                         StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                 Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 64 * 1024)) {
+
+                pstmt.setFetchSize(FETCH_SIZE);
+                FilmQueryCompiler.bind(pstmt, userId, filter, null, null);
+
+                if (format == Format.CSV) {
+                    out.write("title,genre,year,watched\n");
+                }
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (isCancelled.getAsBoolean()) {
+                            break;
+                        }
+
+                        String title = rs.getString("title");
+                        String genre = rs.getString("genre");
+                        int year = rs.getInt("year");
+                        boolean watched = rs.getInt("watched") == 1;
+
+                        if (format == Format.CSV) {
+                            writeCsvRow(out, title, genre, year, watched);
+                        } else {
+                            writeJsonLine(out, title, genre, year, watched);
+                        }
+
+                        exported++;
+                        if (exported % PROGRESS_INTERVAL == 0) {
+                            listener.progress(exported, total);
+                        }
+                    }
+                }
+            }
+
+            if (isCancelled.getAsBoolean()) {
+                Files.deleteIfExists(partial);
+                return -1;
+            }
+
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            listener.progress(exported, total);
+            return exported;
+
+        } catch (IOException | SQLException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+    }
+
+
+    // Only used for the progress bar, served by the same index as the export query
+    private static long count(Connection conn, String sql, int userId, FilmFilter filter) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM (" + sql + ")")) {
+            FilmQueryCompiler.bind(pstmt, userId, filter, null, null);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+
+    // Same column order as the header, and readable by FilmImporter
+    private static void writeCsvRow(Writer out, String title, String genre, int year, boolean watched) throws IOException {
+        writeCsvField(out, title);
+        out.write(',');
+        writeCsvField(out, genre);
+        out.write(',');
+        out.write(Integer.toString(year));
+        out.write(',');
+        out.write(watched ? "true" : "false");
+        out.write('\n');
+    }
+
+
+    private static void writeCsvField(Writer out, String value) throws IOException {
+        boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+
+    private static void writeJsonLine(Writer out, String title, String genre, int year, boolean watched) throws IOException {
+        out.write("{\"title\":");
+        writeJsonString(out, title);
+        out.write(",\"genre\":");
+        writeJsonString(out, genre);
+        out.write(",\"year\":");
+        out.write(Integer.toString(year));
+        out.write(",\"watched\":");
+        out.write(watched ? "true" : "false");
+        out.write("}\n");
+    }
+
+
+    private static void writeJsonString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.project.io;
+
+import com.example.project.data.FilmRepository;
+import com.example.project.metrics.Metrics;
+import com.example.project.metrics.Operation;
+import com.example.project.models.Film;
+import com.example.project.models.FilmValidator;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+
+// Streams films from a CSV or JSON file into a user's collection.
+// The file is read one record at a time, rows are validated with the same rules as the add form,
+// and valid rows are inserted with JDBC batches, committing every CHUNK_SIZE rows.
+// Rows that fail validation are reported and skipped; a cancelled import keeps the chunks already committed.
+//
+// CSV: an optional header row names the columns (title, genre, year, watched), otherwise that order is assumed.
+// JSON: an array of objects or one object per line, with the same field names.
+public final class FilmImporter {
+
+    private static final int CHUNK_SIZE = Integer.getInteger("films.import.chunkSize", 1000);
+
+    private static final List<String> DEFAULT_COLUMNS = List.of("title", "genre", "year", "watched");
+
+
+    public interface Listener {
+        void progress(long bytesRead, long totalBytes, long imported, long rejected);
+
+        void rejected(long recordNumber, String reason);
+    }
+
+
+    public record Result(long imported, long rejected) { }
+
+
+    private FilmImporter() { }
+
+
+    // By the file name alone; callers check this before starting an import, importFile() refuses the rest too
+    public static boolean isSupported(Path file) {
+        return formatOf(file) != null;
+    }
+
+
+    public static Result importFile(Path file, int userId, Listener listener, BooleanSupplier isCancelled)
+            throws IOException, SQLException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Result result = read(file, userId, listener, isCancelled);
+            failed = false;
+            return result;
+        } finally {
+            Metrics.record(Operation.IMPORT, start, failed);
+        }
+    }
+
+
+    private static Result read(Path file, int userId, Listener listener, BooleanSupplier isCancelled)
+            throws IOException, SQLException {
+
+        String format = formatOf(file);
+        if (format == null) {
+            throw new IOException("Unsupported file type: " + file.getFileName() + " (expected .csv, .json or .jsonl)");
+        }
+
+        long totalBytes = Files.size(file);
+        try (CountingInputStream counting = new CountingInputStream(Files.newInputStream(file));
+             Reader reader = new BufferedReader(new InputStreamReader(counting, StandardCharsets.UTF_8), 64 * 1024)) {
+
+            RecordSource source = format.equals("csv") ? csvSource(new CsvReader(reader)) : jsonSource(new JsonRecordReader(reader));
+            return insertAll(source, userId, listener, isCancelled, counting, totalBytes);
+        }
+    }
+
+
+    private static Result insertAll(RecordSource source, int userId, Listener listener, BooleanSupplier isCancelled,
+                                    CountingInputStream counting, long totalBytes) throws IOException, SQLException {
+        long imported = 0;
+        long rejected = 0;
+        long read = 0;
+        List<Film> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        // Records are parsed here; every full chunk is one transaction on the writer, so edits made
+        // in the meantime are written between two chunks instead of waiting for the whole file
+        RawFilm raw;
+        while ((raw = source.next()) != null && !isCancelled.getAsBoolean()) {
+            read++;
+
+            String error = validate(raw);
+            if (error != null) {
+                rejected++;
+                listener.rejected(raw.recordNumber(), error);
+            } else {
+                chunk.add(new Film(0, raw.title(), raw.genre(), Integer.parseInt(raw.year()), parseWatched(raw.watched())));
+            }
+
+            if (chunk.size() == CHUNK_SIZE) {
+                insertChunk(userId, chunk);
+                imported += chunk.size();
+                chunk.clear();
+            }
+            if (read % CHUNK_SIZE == 0) {
+                listener.progress(counting.getCount(), totalBytes, imported, rejected);
+            }
+        }
+
+        // When cancelled, only the unfinished chunk is lost
+        if (!isCancelled.getAsBoolean() && !chunk.isEmpty()) {
+            insertChunk(userId, chunk);
+            imported += chunk.size();
+        }
+
+        listener.progress(counting.getCount(), totalBytes, imported, rejected);
+        return new Result(imported, rejected);
+    }
+
+
+    private static void insertChunk(int userId, List<Film> chunk) throws SQLException {
+        FilmRepository.inTransaction(conn -> {
+            FilmRepository.insertAll(conn, userId, chunk);
+            return null;
+        });
+    }
+
+
+    private static String validate(RawFilm raw) {
+        String error = FilmValidator.validate(raw.title(), raw.genre(), raw.year());
+        if (error == null && parseWatchedOrNull(raw.watched()) == null) {
+            error = "Watched must be true or false.";
+        }
+        return error;
+    }
+
+
+    private static boolean parseWatched(String text) {
+        return Boolean.TRUE.equals(parseWatchedOrNull(text));
+    }
+
+
+    // A missing value means "not watched"; null means the value is not understood
+    private static Boolean parseWatchedOrNull(String text) {
+        return switch (text.toLowerCase(Locale.ROOT)) {
+            case "", "false", "0", "no", "n" -> false;
+            case "true", "1", "yes", "y", "x" -> true;
+            default -> null;
+        };
+    }
+
+
+    private static String formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return "csv";
+        }
+        if (name.endsWith(".json") || name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return "json";
+        }
+        return null;
+    }
+
+
+    private static RecordSource csvSource(CsvReader csv) {
+        return new RecordSource() {
+            private Map<String, Integer> columns;
+
+            @Override
+            public RawFilm next() throws IOException {
+                List<String> fields = csv.readRecord();
+
+                if (columns == null) {
+                    columns = new HashMap<>();
+                    boolean header = fields != null && fields.stream().anyMatch(f -> f.trim().equalsIgnoreCase("title"));
+                    List<String> names = header ? fields : DEFAULT_COLUMNS;
+                    for (int i = 0; i < names.size(); i++) {
+                        columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+                    }
+                    if (header) {
+                        fields = csv.readRecord();
+                    }
+                }
+
+                // Skip blank lines
+                while (fields != null && fields.size() == 1 && fields.get(0).isBlank()) {
+                    fields = csv.readRecord();
+                }
+                if (fields == null) {
+                    return null;
+                }
+
+                return new RawFilm(csv.getRecordNumber(), field(fields, "title"), field(fields, "genre"),
+                        field(fields, "year"), field(fields, "watched"));
+            }
+
+            private String field(List<String> fields, String name) {
+                Integer index = columns.get(name);
+                return index == null || index >= fields.size() ? "" : fields.get(index).trim();
+            }
+        };
+    }
+
+
+    private static RecordSource jsonSource(JsonRecordReader json) {
+        return () -> {
+            Map<String, String> record = json.readRecord();
+            if (record == null) {
+                return null;
+            }
+            return new RawFilm(json.getRecordNumber(), field(record, "title"), field(record, "genre"),
+                    field(record, "year"), field(record, "watched"));
+        };
+    }
+
+
+    private static String field(Map<String, String> record, String name) {
+        String value = record.get(name);
+        return value == null ? "" : value.trim();
+    }
+
+
+    private interface RecordSource {
+        RawFilm next() throws IOException; // null at the end
+    }
+
+
+    private record RawFilm(long recordNumber, String title, String genre, String year, String watched) { }
+
+
+    // Counts bytes as the reader pulls them from the file, for the progress bar
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.project.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+// Streaming reader for flat JSON objects, either as one top-level array ([{...}, {...}])
+// or as JSON Lines (one object per line). Only one object is held in memory at a time.
+// Scalar values are returned as text (strings unescaped, numbers and booleans as written, null as null);
+// nested objects and arrays are skipped.
+final class JsonRecordReader {
+
+    private static final int NOTHING = -2;
+
+    private final Reader in;
+    private int pushedBack = NOTHING;
+    private boolean started;
+    private boolean inArray;
+    private boolean finished;
+    private long recordNumber;
+
+
+    JsonRecordReader(Reader in) {
+        this.in = in;
+    }
+
+
+    // Returns the next object, or null at the end of the input
+    Map<String, String> readRecord() throws IOException {
+        if (finished) {
+            return null;
+        }
+
+        int c = nextNonSpace();
+        if (!started) {
+            started = true;
+            if (c == '[') {
+                inArray = true;
+                c = nextNonSpace();
+                if (c == ']') {
+                    finished = true;
+                    return null;
+                }
+            }
+        } else if (inArray) {
+            if (c == ']') {
+                finished = true;
+                return null;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or ']' after record " + recordNumber);
+            }
+            c = nextNonSpace();
+        }
+
+        if (c == -1) {
+            if (inArray) {
+                throw error("Unexpected end of input inside the top-level array");
+            }
+            finished = true;
+            return null;
+        }
+        if (c != '{') {
+            throw error("Expected '{' at the start of record " + (recordNumber + 1));
+        }
+
+        Map<String, String> record = new LinkedHashMap<>();
+        c = nextNonSpace();
+        while (c != '}') {
+            if (c != '"') {
+                throw error("Expected a field name in record " + (recordNumber + 1));
+            }
+            String name = readString();
+            if (nextNonSpace() != ':') {
+                throw error("Expected ':' after \"" + name + "\" in record " + (recordNumber + 1));
+            }
+            record.put(name, readValue());
+
+            c = nextNonSpace();
+            if (c == ',') {
+                c = nextNonSpace();
+            } else if (c != '}') {
+                throw error("Expected ',' or '}' in record " + (recordNumber + 1));
+            }
+        }
+
+        recordNumber++;
+        return record;
+    }
+
+
+    // 1-based number of the record returned last
+    long getRecordNumber() {
+        return recordNumber;
+    }
+
+
+    private String readValue() throws IOException {
+        int c = nextNonSpace();
+        if (c == '"') {
+            return readString();
+        }
+        if (c == '{' || c == '[') {
+            skipNested();
+            return null;
+        }
+
+        StringBuilder literal = new StringBuilder();
+        while (c != -1 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+            literal.append((char) c);
+            c = read();
+        }
+        pushedBack = c;
+
+        if (literal.isEmpty()) {
+            throw error("Missing value in record " + (recordNumber + 1));
+        }
+        String text = literal.toString();
+        return text.equals("null") ? null : text;
+    }
+
+
+    // Called after the opening quote has been read
+    private String readString() throws IOException {
+        StringBuilder text = new StringBuilder();
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw error("Unterminated string in record " + (recordNumber + 1));
+            }
+            if (c == '"') {
+                return text.toString();
+            }
+            if (c != '\\') {
+                text.append((char) c);
+                continue;
+            }
+
+            int escaped = read();
+            switch (escaped) {
+                case '"', '\\', '/' -> text.append((char) escaped);
+                case 'b' -> text.append('\b');
+                case 'f' -> text.append('\f');
+                case 'n' -> text.append('\n');
+                case 'r' -> text.append('\r');
+                case 't' -> text.append('\t');
+                case 'u' -> {
+                    char[] hex = new char[4];
+                    for (int i = 0; i < 4; i++) {
+                        int h = read();
+                        if (h == -1) {
+                            throw error("Unterminated \\u escape in record " + (recordNumber + 1));
+                        }
+                        hex[i] = (char) h;
+                    }
+                    try {
+                        text.append((char) Integer.parseInt(new String(hex), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid \\u escape in record " + (recordNumber + 1));
+                    }
+                }
+                default -> throw error("Invalid escape in record " + (recordNumber + 1));
+            }
+        }
+    }
+
+
+    private void skipNested() throws IOException {
+        int depth = 1;
+        while (depth > 0) {
+            int c = read();
+            if (c == -1) {
+                throw error("Unexpected end of input in record " + (recordNumber + 1));
+            }
+            if (c == '"') {
+                readString();
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            }
+        }
+    }
+
+
+    private int nextNonSpace() throws IOException {
+        int c = read();
+        while (c != -1 && Character.isWhitespace(c)) {
+            c = read();
+        }
+        return c;
+    }
+
+
+    private int read() throws IOException {
+        if (pushedBack != NOTHING) {
+            int c = pushedBack;
+            pushedBack = NOTHING;
+            return c;
+        }
+        return in.read();
+    }
+
+
+    private IOException error(String message) {
+        return new IOException("Invalid JSON: " + message);
+    }
+}
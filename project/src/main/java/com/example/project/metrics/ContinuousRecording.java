@@ -0,0 +1,83 @@
+package com.example.project.metrics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+
+// Flight recording that runs for the whole session when the app is started with -Dfilms.jfr=true.
+// It keeps the last films.jfr.maxAgeMinutes of data, and at most films.jfr.maxSizeMb on disk, so it can
+// stay on indefinitely. dump() (the "Dump recording" button) copies that window into a .jfr file next to
+// the app, where the FilmEvents line up with GC, safepoints and the JavaFX thread in JDK Mission Control.
+public final class ContinuousRecording {
+
+    private static final boolean ENABLED = Boolean.getBoolean("films.jfr");
+    private static final String SETTINGS = System.getProperty("films.jfr.settings", "default"); // or "profile"
+    private static final long MAX_SIZE_MB = Long.getLong("films.jfr.maxSizeMb", 100L);
+    private static final long MAX_AGE_MINUTES = Long.getLong("films.jfr.maxAgeMinutes", 30L);
+    private static final Path DUMP_DIR = Path.of(System.getProperty("films.jfr.dir", "recordings"));
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static Recording recording;
+
+
+    private ContinuousRecording() { }
+
+
+    // Called once at startup; without -Dfilms.jfr=true it does nothing
+    public static synchronized void startIfEnabled() {
+        if (!ENABLED || recording != null) {
+            return;
+        }
+        try {
+            Recording started = new Recording(Configuration.getConfiguration(SETTINGS));
+            started.setName("films");
+            started.setToDisk(true);
+            started.setMaxSize(MAX_SIZE_MB * 1024 * 1024);
+            started.setMaxAge(Duration.ofMinutes(MAX_AGE_MINUTES));
+            started.start();
+            recording = started;
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            e.printStackTrace(); // Only the recording is lost
+        }
+    }
+
+
+    public static synchronized boolean isRunning() {
+        return recording != null;
+    }
+
+
+    // Writes what the recording currently holds to a new file and returns its path; the recording goes on
+    public static Path dump() throws IOException {
+        Recording current;
+        synchronized (ContinuousRecording.class) {
+            current = recording;
+        }
+        if (current == null) {
+            throw new IllegalStateException("No recording is running, start the application with -Dfilms.jfr=true");
+        }
+
+        Files.createDirectories(DUMP_DIR);
+        Path file = DUMP_DIR.resolve("films-" + LocalDateTime.now().format(FILE_TIME) + ".jfr").toAbsolutePath();
+        current.dump(file);
+        return file;
+    }
+
+
+    // Called when the application exits; the on-disk chunks are deleted with the recording
+    public static synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.project.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("com.example.project.Delete")
+@Label("Delete")
+@Description("A film was deleted")
+public class DeleteEvent extends FilmEvent { }
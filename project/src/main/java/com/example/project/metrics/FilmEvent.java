@@ -0,0 +1,30 @@
+package com.example.project.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+
+// Base of the Flight Recorder events below. The duration comes from begin()/commit(); an event that
+// is not being recorded costs a few field writes. Stack traces are off, the event type says where it came from.
+// All of them can be found in JDK Mission Control under "Films". The fields are protected because
+// Flight Recorder ignores private fields declared in a superclass.
+@Category("Films")
+@StackTrace(false)
+public abstract class FilmEvent extends Event {
+
+    @Label("User Id")
+    protected int userId;
+
+    @Label("Rows")
+    protected int rowCount;
+
+
+    // Ends the event and writes it if a recording is taking it
+    public void commit(int userId, int rowCount) {
+        this.userId = userId;
+        this.rowCount = rowCount;
+        commit();
+    }
+}
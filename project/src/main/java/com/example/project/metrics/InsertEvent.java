@@ -0,0 +1,19 @@
+package com.example.project.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("com.example.project.Insert")
+@Label("Insert")
+@Description("A film or a user was added")
+public class InsertEvent extends FilmEvent {
+
+    @Label("Operation")
+    private final String operation; // film or register
+
+    public InsertEvent(String operation) {
+        this.operation = operation;
+    }
+}
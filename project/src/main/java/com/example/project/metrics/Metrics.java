@@ -0,0 +1,162 @@
+package com.example.project.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+
+// Application-wide instrumentation. The data layer times its operations through time()/run()/record(),
+// the film screen reports changes to its list, and registerMBeans() publishes everything on the
+// platform MBean server, so a running instance can be watched with JConsole, VisualVM or any JMX client:
+//   com.example.project:type=Operation,name=load|search|insert|...   latency percentiles, errors, throughput
+//   com.example.project:type=Resources                                pool, queues, film list and table
+public final class Metrics {
+
+    private static final String DOMAIN = "com.example.project";
+
+    private static final Map<Operation, OperationMetrics> operations = new EnumMap<>(Operation.class);
+    private static final LongAdder filmListChanges = new LongAdder();
+    private static final LongAdder filmListReloads = new LongAdder();
+    private static final LongAdder reloadRequests = new LongAdder();
+    private static final LongAdder reloadsCoalesced = new LongAdder();
+    private static final LongAdder reloadsSuperseded = new LongAdder();
+    private static final LongAdder writeBehindFailures = new LongAdder();
+    private static final LongAdder writeBehindDropped = new LongAdder();
+    private static volatile int filmTableNodes;
+    private static volatile int filmTableRows;
+
+    private static boolean registered;
+
+    static {
+        for (Operation operation : Operation.values()) {
+            operations.put(operation, new OperationMetrics());
+        }
+    }
+
+
+    private Metrics() { }
+
+
+    @FunctionalInterface
+    public interface TimedCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    @FunctionalInterface
+    public interface TimedRun<E extends Exception> {
+        void run() throws E;
+    }
+
+
+    // Runs the call and records its latency; an exception counts as an error and is passed on unchanged
+    public static <T, E extends Exception> T time(Operation operation, TimedCall<T, E> call) throws E {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = call.call();
+            failed = false;
+            return result;
+        } finally {
+            record(operation, start, failed);
+        }
+    }
+
+
+    public static <E extends Exception> void run(Operation operation, TimedRun<E> run) throws E {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            run.run();
+            failed = false;
+        } finally {
+            record(operation, start, failed);
+        }
+    }
+
+
+    // For code that cannot be wrapped in a lambda, e.g. because it throws more than one checked exception
+    public static void record(Operation operation, long startNanos, boolean failed) {
+        operations.get(operation).record(System.nanoTime() - startNanos, failed);
+    }
+
+
+    public static OperationMetrics get(Operation operation) {
+        return operations.get(operation);
+    }
+
+
+    // reload: the change replaced the whole list (setAll) rather than a few rows
+    public static void recordFilmListChange(boolean reload) {
+        filmListChanges.increment();
+        if (reload) {
+            filmListReloads.increment();
+        }
+    }
+
+
+    static long getFilmListChanges() { return filmListChanges.sum(); }
+
+    static long getFilmListReloads() { return filmListReloads.sum(); }
+
+
+    // Reloads of the film screen: every request, the ones folded into a reload that was already waiting
+    // (no query at all), and the loads cancelled because a newer one started (query skipped or result dropped)
+    public static void recordReloadRequest() { reloadRequests.increment(); }
+
+    public static void recordReloadCoalesced() { reloadsCoalesced.increment(); }
+
+    public static void recordReloadSuperseded() { reloadsSuperseded.increment(); }
+
+
+    static long getReloadRequests() { return reloadRequests.sum(); }
+
+    static long getReloadsCoalesced() { return reloadsCoalesced.sum(); }
+
+    static long getReloadsSuperseded() { return reloadsSuperseded.sum(); }
+
+
+    // FilmWriteQueue: batches that failed to write, and the changes given up on after the last retry
+    public static void recordWriteBehindFailure() { writeBehindFailures.increment(); }
+
+    public static void recordWriteBehindDropped(int changes) { writeBehindDropped.add(changes); }
+
+
+    static long getWriteBehindFailures() { return writeBehindFailures.sum(); }
+
+    static long getWriteBehindDropped() { return writeBehindDropped.sum(); }
+
+
+    // After each layout pass of the film screen: the nodes under the table and the rows showing a film
+    public static void recordFilmTableSize(int nodes, int rows) {
+        filmTableNodes = nodes;
+        filmTableRows = rows;
+    }
+
+
+    static int getFilmTableNodes() { return filmTableNodes; }
+
+    static int getFilmTableRows() { return filmTableRows; }
+
+
+    // Called once at startup; a failure only costs the monitoring, never the application
+    public static synchronized void registerMBeans() {
+        if (registered) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (Map.Entry<Operation, OperationMetrics> entry : operations.entrySet()) {
+                server.registerMBean(entry.getValue(),
+                        new ObjectName(DOMAIN + ":type=Operation,name=" + entry.getKey().getDisplayName()));
+            }
+            server.registerMBean(new ResourceMetrics(), new ObjectName(DOMAIN + ":type=Resources"));
+            registered = true;
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.project.metrics;
+
+
+// The timed operations. A batch (an import chunk, a write-behind flush, ...) counts as one operation.
+public enum Operation {
+    LOAD("load"),         // A page or a full list of films
+    SEARCH("search"),
+    INSERT("insert"),
+    UPDATE("update"),
+    DELETE("delete"),
+    LOGIN("login"),
+    REGISTER("register"),
+    IMPORT("import"),
+    EXPORT("export"),
+    LAYOUT("layout");     // CSS and layout pass of a pulse on the film screen, on the JavaFX thread
+
+    private final String displayName;
+
+    Operation(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() { return displayName; }
+}
@@ -0,0 +1,84 @@
+package com.example.project.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+
+// Latency, error and throughput figures of one Operation
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    private static final int RATE_WINDOW_SECONDS = 60;
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    // Completions per second for the last RATE_WINDOW_SECONDS, as a ring indexed by epoch second
+    private final long[] perSecond = new long[RATE_WINDOW_SECONDS];
+    private final long[] secondOfSlot = new long[RATE_WINDOW_SECONDS];
+
+
+    void record(long elapsedNanos, boolean failed) {
+        latencies.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        if (failed) {
+            errors.increment();
+        }
+        countCompletion(currentSecond());
+    }
+
+
+    private synchronized void countCompletion(long second) {
+        int slot = (int) (second % RATE_WINDOW_SECONDS);
+        if (secondOfSlot[slot] != second) {
+            secondOfSlot[slot] = second;
+            perSecond[slot] = 0;
+        }
+        perSecond[slot]++;
+    }
+
+
+    @Override
+    public long getCount() { return latencies.getCount(); }
+
+    @Override
+    public long getErrorCount() { return errors.sum(); }
+
+    @Override
+    public long getP50Micros() { return latencies.percentile(0.50); }
+
+    @Override
+    public long getP99Micros() { return latencies.percentile(0.99); }
+
+    @Override
+    public long getMaxMicros() { return latencies.getMax(); }
+
+    @Override
+    public double getMeanMicros() { return latencies.getMean(); }
+
+
+    @Override
+    public synchronized double getThroughputPerSecond() {
+        long now = currentSecond();
+        long completed = 0;
+        for (int slot = 0; slot < RATE_WINDOW_SECONDS; slot++) {
+            if (now - secondOfSlot[slot] < RATE_WINDOW_SECONDS) {
+                completed += perSecond[slot];
+            }
+        }
+        return (double) completed / RATE_WINDOW_SECONDS;
+    }
+
+
+    @Override
+    public synchronized void reset() {
+        latencies.reset();
+        errors.reset();
+        Arrays.fill(perSecond, 0);
+        Arrays.fill(secondOfSlot, 0);
+    }
+
+
+    private static long currentSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.project.metrics;
+
+
+// One per Operation, registered as com.example.project:type=Operation,name=<operation>.
+// Latencies are in microseconds and cover everything since start (or the last reset).
+public interface OperationMetricsMXBean {
+
+    long getCount();
+
+    long getErrorCount();
+
+    long getP50Micros();
+
+    long getP99Micros();
+
+    long getMaxMicros();
+
+    double getMeanMicros();
+
+    // Operations per second, averaged over the last minute
+    double getThroughputPerSecond();
+
+    void reset();
+}
@@ -0,0 +1,19 @@
+package com.example.project.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("com.example.project.Query")
+@Label("Query")
+@Description("Rows read for the film screen or the login screen")
+public class QueryEvent extends FilmEvent {
+
+    @Label("Operation")
+    private final String operation; // load, page, search or login
+
+    public QueryEvent(String operation) {
+        this.operation = operation;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.project.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("com.example.project.Reload")
+@Label("Film List Reload")
+@Description("From asking for a full reload until the new rows are in the film list")
+public class ReloadEvent extends FilmEvent { }
@@ -0,0 +1,125 @@
+package com.example.project.metrics;
+
+import com.example.project.data.ConnectionPool;
+import com.example.project.data.DatabaseManager;
+import com.example.project.data.DatabaseWriter;
+import com.example.project.data.FilmWriteQueue;
+import com.example.project.services.TaskExecutorService;
+
+
+class ResourceMetrics implements ResourceMetricsMXBean {
+
+    @Override
+    public int getPoolActiveConnections() {
+        ConnectionPool pool = DatabaseManager.getPoolIfOpen();
+        return pool == null ? 0 : pool.getActiveCount();
+    }
+
+    @Override
+    public int getPoolIdleConnections() {
+        ConnectionPool pool = DatabaseManager.getPoolIfOpen();
+        return pool == null ? 0 : pool.getIdleCount();
+    }
+
+    @Override
+    public int getPoolOpenConnections() {
+        ConnectionPool pool = DatabaseManager.getPoolIfOpen();
+        return pool == null ? 0 : pool.getOpenCount();
+    }
+
+    @Override
+    public int getPoolWaitingThreads() {
+        ConnectionPool pool = DatabaseManager.getPoolIfOpen();
+        return pool == null ? 0 : pool.getWaitingCount();
+    }
+
+    @Override
+    public int getPoolMaxSize() {
+        ConnectionPool pool = DatabaseManager.getPoolIfOpen();
+        return pool == null ? 0 : pool.getMaxSize();
+    }
+
+    @Override
+    public long getStatementCacheHits() {
+        ConnectionPool pool = DatabaseManager.getPoolIfOpen();
+        return pool == null ? 0 : pool.getStatementCacheHits();
+    }
+
+    @Override
+    public long getStatementCacheMisses() {
+        ConnectionPool pool = DatabaseManager.getPoolIfOpen();
+        return pool == null ? 0 : pool.getStatementCacheMisses();
+    }
+
+    @Override
+    public int getWriterQueueDepth() {
+        DatabaseWriter writer = DatabaseManager.getWriterIfOpen();
+        return writer == null ? 0 : writer.getQueuedCount();
+    }
+
+    @Override
+    public long getWriterWrites() {
+        DatabaseWriter writer = DatabaseManager.getWriterIfOpen();
+        return writer == null ? 0 : writer.getWriteCount();
+    }
+
+    @Override
+    public long getWriterQueueWaitMillis() {
+        DatabaseWriter writer = DatabaseManager.getWriterIfOpen();
+        return writer == null ? 0 : writer.getQueueWaitMillis();
+    }
+
+    @Override
+    public long getWriterMaxQueueWaitMillis() {
+        DatabaseWriter writer = DatabaseManager.getWriterIfOpen();
+        return writer == null ? 0 : writer.getMaxQueueWaitMillis();
+    }
+
+    @Override
+    public long getReadLockWaits() { return DatabaseManager.getReadLockWaits(); }
+
+    @Override
+    public long getWriteLockWaits() { return DatabaseManager.getWriteLockWaits(); }
+
+    @Override
+    public long getLockWaitMillis() { return DatabaseManager.getLockWaitMillis(); }
+
+    @Override
+    public long getLockTimeouts() { return DatabaseManager.getLockTimeouts(); }
+
+    @Override
+    public int getWriteQueuePending() { return FilmWriteQueue.getPendingCount(); }
+
+    @Override
+    public int getTaskQueueDepth() { return TaskExecutorService.getQueueDepth(); }
+
+    @Override
+    public int getTasksRunning() { return TaskExecutorService.getRunningCount(); }
+
+    @Override
+    public long getWriteBehindFailures() { return Metrics.getWriteBehindFailures(); }
+
+    @Override
+    public long getWriteBehindDropped() { return Metrics.getWriteBehindDropped(); }
+
+    @Override
+    public long getFilmListChanges() { return Metrics.getFilmListChanges(); }
+
+    @Override
+    public long getFilmListReloads() { return Metrics.getFilmListReloads(); }
+
+    @Override
+    public long getReloadRequests() { return Metrics.getReloadRequests(); }
+
+    @Override
+    public long getReloadsCoalesced() { return Metrics.getReloadsCoalesced(); }
+
+    @Override
+    public long getReloadsSuperseded() { return Metrics.getReloadsSuperseded(); }
+
+    @Override
+    public int getFilmTableNodes() { return Metrics.getFilmTableNodes(); }
+
+    @Override
+    public int getFilmTableRows() { return Metrics.getFilmTableRows(); }
+}
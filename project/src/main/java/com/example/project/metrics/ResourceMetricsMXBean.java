@@ -0,0 +1,69 @@
+package com.example.project.metrics;
+
+
+// Registered as com.example.project:type=Resources. Every value is read live when asked for.
+public interface ResourceMetricsMXBean {
+
+    // Read-only connection pool (all 0 while no pool is open)
+    int getPoolActiveConnections();
+
+    int getPoolIdleConnections();
+
+    int getPoolOpenConnections();
+
+    int getPoolWaitingThreads();
+
+    int getPoolMaxSize();
+
+    long getStatementCacheHits();
+
+    long getStatementCacheMisses();
+
+    // The writer thread: writes waiting for it now, writes done, and the time writes spent queued behind each other
+    int getWriterQueueDepth();
+
+    long getWriterWrites();
+
+    long getWriterQueueWaitMillis();
+
+    long getWriterMaxQueueWaitMillis();
+
+    // Lock contention: waits for a database lock by readers and by the writer, the time spent waiting,
+    // and the waits that ended in SQLITE_BUSY
+    long getReadLockWaits();
+
+    long getWriteLockWaits();
+
+    long getLockWaitMillis();
+
+    long getLockTimeouts();
+
+    // Background work
+    int getWriteQueuePending();
+
+    int getTaskQueueDepth();
+
+    int getTasksRunning();
+
+    // Write-behind batches that failed, and film changes dropped after their last retry
+    long getWriteBehindFailures();
+
+    long getWriteBehindDropped();
+
+    // The film table: change notifications on filmList, and how many of them replaced the whole list
+    long getFilmListChanges();
+
+    long getFilmListReloads();
+
+    // Reload requests, and the redundant loads avoided: coalesced ones never ran, superseded ones were cancelled
+    long getReloadRequests();
+
+    long getReloadsCoalesced();
+
+    long getReloadsSuperseded();
+
+    // Scene-graph size of the film table after its last layout pass (the pass itself is Operation "layout")
+    int getFilmTableNodes();
+
+    int getFilmTableRows();
+}
@@ -0,0 +1,20 @@
+package com.example.project.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("com.example.project.SetAll")
+@Label("Film List setAll")
+@Description("Replacing the contents of the film list on the JavaFX thread, including every listener")
+public class SetAllEvent extends FilmEvent {
+
+    @Label("Merged")
+    @Description("Applied as an id-keyed diff rather than by replacing every row")
+    private boolean merged;
+
+    public void setMerged(boolean merged) {
+        this.merged = merged;
+    }
+}
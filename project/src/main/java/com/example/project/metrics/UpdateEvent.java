@@ -0,0 +1,11 @@
+package com.example.project.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("com.example.project.Update")
+@Label("Update")
+@Description("A write-behind batch of film changes, one transaction")
+public class UpdateEvent extends FilmEvent { }
@@ -0,0 +1,36 @@
+package com.example.project.models;
+
+public class Film implements FilmData {
+    private int id;
+    private String title;
+    private String genre;
+    private int year;
+    private boolean watched;
+
+    public Film(int id, String title, String genre, int year, boolean watched) {
+        this.id = id;
+        this.title = title;
+        this.genre = genre;
+        this.year = year;
+        this.watched = watched;
+    }
+    public Film() {}
+
+
+    // Getters and setters
+
+    @Override public int getId() {return id;}
+    public void setId(int id) { this.id = id; } // Set once the database has assigned the real id
+
+    @Override public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    @Override public String getGenre() { return genre; }
+    public void setGenre(String genre) { this.genre = genre; }
+
+    @Override public int getYear() { return year; }
+    public void setYear(int year) { this.year = year; }
+
+    @Override public boolean isWatched() { return watched; }
+    public void setWatched(boolean watched) { this.watched = watched; }
+}
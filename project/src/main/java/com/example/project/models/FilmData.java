@@ -0,0 +1,18 @@
+package com.example.project.models;
+
+
+// The values of one film, whichever way they are held: Film is a plain object for the data layer,
+// ObservableFilm keeps them in properties for the film table. Code that only reads a film takes this,
+// so the table's rows can be passed to it without copying.
+public interface FilmData {
+
+    int getId();
+
+    String getTitle();
+
+    String getGenre();
+
+    int getYear();
+
+    boolean isWatched();
+}
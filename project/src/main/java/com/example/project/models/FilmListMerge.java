@@ -0,0 +1,172 @@
+package com.example.project.models;
+
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+// Applies a reloaded result to the film list as a diff keyed on the film id, instead of setAll().
+// Films that are still there keep their ObservableFilm and only get the new values (so their cells update
+// in place and selection and scroll position stay put); the rest is one remove() per range of rows that
+// go and one addAll() per run of rows that come. Rows that changed position are moved as a remove and an
+// add: the longest run of films already in the right relative order stays, so a single re-sorted row
+// costs one move, not the list. Past MAX_CHANGES a plain setAll() is cheaper than that many change
+// events, and apply() leaves it to the caller.
+public final class FilmListMerge {
+
+    public static final int MAX_CHANGES = 256;
+
+
+    private FilmListMerge() { }
+
+
+    // Returns false, without touching 'list', when the caller should use setAll() instead.
+    // 'films' must be new ObservableFilms (e.g. from ObservableFilm.ofAll), in the order to show.
+    public static boolean apply(ObservableList<ObservableFilm> list, List<ObservableFilm> films) {
+        IdIndex targetIndex = new IdIndex(films.size());
+        for (int i = 0; i < films.size(); i++) {
+            targetIndex.putIfAbsent(films.get(i).getId(), i);
+        }
+
+        // The films in 'list' that can stay, as their index in 'films', in list order
+        ObservableFilm[] keptAt = new ObservableFilm[films.size()];
+        int[] targetOf = new int[list.size()]; // Per row of 'list', -1 if it goes
+        int[] order = new int[list.size()];
+        int kept = 0;
+        for (int row = 0; row < list.size(); row++) {
+            int index = targetIndex.get(list.get(row).getId());
+            if (index >= 0 && keptAt[index] == null) {
+                keptAt[index] = list.get(row);
+                order[kept++] = index;
+            } else {
+                index = -1;
+            }
+            targetOf[row] = index;
+        }
+
+        // Kept films outside the longest increasing run are out of place and have to move
+        boolean[] staying = new boolean[films.size()];
+        int stayingCount = markLongestIncreasingRun(order, kept, staying);
+        int changes = (list.size() - stayingCount) + (films.size() - stayingCount);
+        if (changes > MAX_CHANGES) {
+            return false;
+        }
+
+        // Back to front, so the indexes of the rows still to remove stay valid; one change per range
+        for (int end = list.size(); end > 0; ) {
+            if (targetOf[end - 1] >= 0 && staying[targetOf[end - 1]]) {
+                end--;
+                continue;
+            }
+            int start = end - 1;
+            while (start > 0 && (targetOf[start - 1] < 0 || !staying[targetOf[start - 1]])) {
+                start--;
+            }
+            list.remove(start, end);
+            end = start;
+        }
+
+        // 'list' now holds the staying films in the right order; fill in the rest around them
+        List<ObservableFilm> run = new ArrayList<>();
+        int position = 0;
+        for (int i = 0; i < films.size(); i++) {
+            ObservableFilm existing = keptAt[i];
+            ObservableFilm target = existing != null ? existing : films.get(i);
+            if (existing != null) {
+                existing.copyFrom(films.get(i));
+            }
+
+            if (staying[i]) {
+                if (!run.isEmpty()) {
+                    list.addAll(position, run);
+                    position += run.size();
+                    run.clear();
+                }
+                position++;
+            } else {
+                run.add(target); // New, or a kept film being moved (it keeps its identity)
+            }
+        }
+        if (!run.isEmpty()) {
+            list.addAll(position, run);
+        }
+        return true;
+    }
+
+
+    // Patience sorting, O(n log n): marks the values of the longest strictly increasing subsequence of
+    // order[0..length) in 'marks' and returns its length
+    private static int markLongestIncreasingRun(int[] order, int length, boolean[] marks) {
+        int[] tails = new int[length];      // tails[k]: index into 'order' ending the best run of length k + 1
+        int[] previous = new int[length];
+        int runLength = 0;
+        for (int i = 0; i < length; i++) {
+            int low = 0;
+            int high = runLength;
+            if (runLength > 0 && order[tails[runLength - 1]] < order[i]) {
+                low = runLength; // Mostly the case, the list is rarely reordered
+            }
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (order[tails[middle]] < order[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == runLength) {
+                runLength++;
+            }
+        }
+
+        for (int k = 0, i = runLength > 0 ? tails[runLength - 1] : -1; k < runLength; k++, i = previous[i]) {
+            marks[order[i]] = true;
+        }
+        return runLength;
+    }
+
+
+    // int id -> int index, open addressing: a HashMap<Integer, Integer> boxes every id of a 50k-row list
+    private static final class IdIndex {
+
+        private final int[] ids;
+        private final int[] indexes;
+        private final boolean[] used;
+        private final int mask;
+
+        IdIndex(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+            ids = new int[capacity];
+            indexes = new int[capacity];
+            used = new boolean[capacity];
+            mask = capacity - 1;
+        }
+
+        void putIfAbsent(int id, int index) {
+            int slot = slotOf(id);
+            if (!used[slot]) {
+                used[slot] = true;
+                ids[slot] = id;
+                indexes[slot] = index;
+            }
+        }
+
+        // -1 if absent
+        int get(int id) {
+            int slot = slotOf(id);
+            return used[slot] ? indexes[slot] : -1;
+        }
+
+        private int slotOf(int id) {
+            int hash = id * 0x9E3779B9;
+            int slot = (hash ^ hash >>> 16) & mask;
+            while (used[slot] && ids[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
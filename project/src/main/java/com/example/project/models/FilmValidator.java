@@ -0,0 +1,30 @@
+package com.example.project.models;
+
+// Field rules shared by the add form, the edit dialog and the bulk importer
+public final class FilmValidator {
+
+    public static final int MIN_YEAR = 1800;
+    public static final int MAX_YEAR = 2100;
+
+    private FilmValidator() { }
+
+
+    // Expects trimmed values. Returns a message for the user, or null if the values are valid.
+    public static String validate(String title, String genre, String yearText) {
+        if (title.isEmpty() || genre.isEmpty() || yearText.isEmpty()) {
+            return "Please fill in all fields.";
+        }
+
+        int year;
+        try {
+            year = Integer.parseInt(yearText);
+        } catch (NumberFormatException e) {
+            return "The year must be a number.";
+        }
+
+        if (year < MIN_YEAR || year > MAX_YEAR) {
+            return "Please enter a valid year (" + MIN_YEAR + "-" + MAX_YEAR + ").";
+        }
+        return null;
+    }
+}
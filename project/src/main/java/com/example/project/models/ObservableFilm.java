@@ -0,0 +1,86 @@
+package com.example.project.models;
+
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+// A film as shown in the film table. Its properties are created once per film and the table columns are
+// bound straight to them, so scrolling allocates nothing per cell and a setter updates exactly the cells
+// that show that value, without refreshing the row or the table.
+// Not a Film: the values live only in the properties. toFilm() takes a plain copy for the data layer.
+public final class ObservableFilm implements FilmData {
+
+    private int id;
+    private final StringProperty title;
+    private final StringProperty genre;
+    private final IntegerProperty year;
+    private final BooleanProperty watched;
+
+    public ObservableFilm(int id, String title, String genre, int year, boolean watched) {
+        this.id = id;
+        this.title = new SimpleStringProperty(this, "title", title);
+        this.genre = new SimpleStringProperty(this, "genre", genre);
+        this.year = new SimpleIntegerProperty(this, "year", year);
+        this.watched = new SimpleBooleanProperty(this, "watched", watched);
+    }
+
+
+    public static ObservableFilm of(FilmData film) {
+        return new ObservableFilm(film.getId(), film.getTitle(), film.getGenre(), film.getYear(), film.isWatched());
+    }
+
+
+    // Meant for background threads: the new films are not observed by anything yet
+    public static List<ObservableFilm> ofAll(List<? extends FilmData> films) {
+        List<ObservableFilm> result = new ArrayList<>(films.size());
+        for (FilmData film : films) {
+            result.add(of(film));
+        }
+        return result;
+    }
+
+
+    // Takes over the values of the same film as read again from the database;
+    // a property only fires if its value changed
+    public void copyFrom(FilmData film) {
+        setTitle(film.getTitle());
+        setGenre(film.getGenre());
+        setYear(film.getYear());
+        setWatched(film.isWatched());
+    }
+
+
+    // The current values, detached from the properties
+    public Film toFilm() {
+        return new Film(id, getTitle(), getGenre(), getYear(), isWatched());
+    }
+
+
+    // Getters and setters, plus the properties for the table columns
+
+    @Override public int getId() { return id; }
+    public void setId(int id) { this.id = id; } // Set once the database has assigned the real id
+
+    @Override public String getTitle() { return title.get(); }
+    public void setTitle(String title) { this.title.set(title); }
+    public StringProperty titleProperty() { return title; }
+
+    @Override public String getGenre() { return genre.get(); }
+    public void setGenre(String genre) { this.genre.set(genre); }
+    public StringProperty genreProperty() { return genre; }
+
+    @Override public int getYear() { return year.get(); }
+    public void setYear(int year) { this.year.set(year); }
+    public IntegerProperty yearProperty() { return year; }
+
+    @Override public boolean isWatched() { return watched.get(); }
+    public void setWatched(boolean watched) { this.watched.set(watched); }
+    public BooleanProperty watchedProperty() { return watched; }
+}
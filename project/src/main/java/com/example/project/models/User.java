@@ -0,0 +1,27 @@
+package com.example.project.models;
+
+public class User {
+    private int id;
+    private String username;
+    private String password; // As stored: a PasswordHasher hash, or plaintext for accounts not migrated yet
+
+    public User() { }
+
+    public User(int id, String username, String password) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+    }
+
+
+    // Getters and setters
+
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+}
@@ -0,0 +1,98 @@
+package com.example.project.services;
+
+import com.example.project.data.UserRepository;
+import com.example.project.metrics.InsertEvent;
+import com.example.project.metrics.Metrics;
+import com.example.project.metrics.Operation;
+import com.example.project.metrics.QueryEvent;
+import com.example.project.models.User;
+import javafx.concurrent.Task;
+
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+
+// Login and registration. Hashing a password takes a noticeable fraction of a second by design
+// (see PasswordHasher), so the screens use the async variants: they run on TaskExecutorService
+// and call back on the JavaFX thread. login()/register() are the blocking versions underneath.
+public final class AuthService {
+
+    private AuthService() { }
+
+
+    // onResult gets the user, or null if the username or password is wrong
+    public static void loginAsync(String username, String password, Consumer<User> onResult, Consumer<Throwable> onError) {
+        submit(() -> login(username, password), onResult, onError);
+    }
+
+
+    // onResult gets the new user's id; a taken username fails with an SQLException mentioning UNIQUE
+    public static void registerAsync(String username, String password, Consumer<Integer> onResult, Consumer<Throwable> onError) {
+        submit(() -> register(username, password), onResult, onError);
+    }
+
+
+    private static <T> void submit(Callable<T> work, Consumer<T> onResult, Consumer<Throwable> onError) {
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
+            }
+        };
+
+        task.setOnSucceeded(event -> onResult.accept(task.getValue()));
+        task.setOnFailed(event -> onError.accept(task.getException()));
+
+        TaskExecutorService.submit(task);
+    }
+
+
+    // Returns the user if the password is right, otherwise null. Now that the password is known, a row
+    // still holding it in plaintext (or a hash weaker than the configured work factor) gets a fresh hash.
+    public static User login(String username, String password) throws SQLException {
+        QueryEvent event = new QueryEvent("login");
+        event.begin();
+
+        User user = Metrics.time(Operation.LOGIN, () -> {
+            User found = UserRepository.findByUsername(username);
+            if (found == null) {
+                PasswordHasher.burn(); // Same response time as a wrong password
+                return null;
+            }
+            if (!PasswordHasher.verify(password, found.getPassword())) {
+                return null;
+            }
+            if (PasswordHasher.needsRehash(found.getPassword())) {
+                rehash(found, password);
+            }
+            return found;
+        });
+
+        event.commit(user == null ? 0 : user.getId(), user == null ? 0 : 1);
+        return user;
+    }
+
+
+    // A failed upgrade does not fail the login, the next one tries again
+    private static void rehash(User user, String password) {
+        String hash = PasswordHasher.hash(password);
+        try {
+            UserRepository.updatePassword(user.getId(), hash);
+            user.setPassword(hash);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+
+    public static int register(String username, String password) throws SQLException {
+        InsertEvent event = new InsertEvent("register");
+        event.begin();
+
+        int userId = Metrics.time(Operation.REGISTER, () -> UserRepository.insert(username, PasswordHasher.hash(password)));
+
+        event.commit(userId, 1);
+        return userId;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.project.services;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+
+// PBKDF2-HMAC-SHA256 password hashes, stored as "pbkdf2$<iterations>$<salt>$<hash>" (salt and hash in Base64).
+// The iteration count is the work factor: every login pays for it, so pick it with the WorkFactorCalibrator
+// in the benchmarks module and set it with -Dfilms.auth.iterations=... Hashes keep their own count,
+// so changing it never locks anyone out; older hashes are upgraded on the next successful login.
+public final class PasswordHasher {
+
+    public static final int DEFAULT_ITERATIONS = 600_000; // OWASP's recommendation for PBKDF2-HMAC-SHA256
+    private static final int ITERATIONS = Integer.getInteger("films.auth.iterations", DEFAULT_ITERATIONS);
+
+    private static final String PREFIX = "pbkdf2";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom random = new SecureRandom();
+
+
+    private PasswordHasher() { }
+
+
+    public static int getIterations() { return ITERATIONS; }
+
+
+    public static String hash(String password) {
+        return hash(password, ITERATIONS);
+    }
+
+
+    public static String hash(String password, int iterations) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + iterations + "$" + base64.encodeToString(salt)
+                + "$" + base64.encodeToString(derive(password, salt, iterations));
+    }
+
+
+    // 'stored' is what the users table holds: a hash, or a plaintext password from before hashing was introduced
+    public static boolean verify(String password, String stored) {
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(derive(password, salt, iterations), expected); // Constant time
+        } catch (IllegalArgumentException e) {
+            return false; // Not a hash we wrote
+        }
+    }
+
+
+    public static boolean isHashed(String stored) {
+        return stored.startsWith(PREFIX + "$");
+    }
+
+
+    // True for plaintext rows and for hashes made with fewer iterations than currently configured
+    public static boolean needsRehash(String stored) {
+        if (!isHashed(stored)) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < ITERATIONS;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e); // Part of every JDK
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+
+    // Hashes nothing in particular for as long as a real check takes, so an unknown username
+    // cannot be told apart from a wrong password by the response time
+    static void burn() {
+        derive("", new byte[SALT_BYTES], ITERATIONS);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.project.services;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+// One executor for all background database work in the application.
+// Every task gets its own virtual thread, but only a limited number may run at the same time,
+// the rest wait their turn instead of piling onto the SQLite file at once.
+public final class TaskExecutorService {
+
+    // Can be overridden with -Dfilms.tasks.maxConcurrent=...
+    private static final int MAX_CONCURRENT_TASKS = Integer.getInteger("films.tasks.maxConcurrent", 4);
+
+    private static final Semaphore permits = new Semaphore(MAX_CONCURRENT_TASKS, true);
+    private static final AtomicInteger queuedTasks = new AtomicInteger();
+    private static final AtomicInteger runningTasks = new AtomicInteger();
+
+    private static ExecutorService executor;
+
+
+    private TaskExecutorService() { }
+
+
+    // Accepts any Runnable, including javafx.concurrent.Task
+    public static void submit(Runnable task) {
+        queuedTasks.incrementAndGet();
+        try {
+            getExecutor().execute(() -> runWithPermit(task));
+        } catch (RuntimeException e) {
+            queuedTasks.decrementAndGet();
+            throw e;
+        }
+    }
+
+
+    private static void runWithPermit(Runnable task) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            // Only happens during shutdown: the task never started, so make sure nobody waits for it
+            queuedTasks.decrementAndGet();
+            if (task instanceof Future<?> future) {
+                future.cancel(false);
+            }
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        queuedTasks.decrementAndGet();
+        runningTasks.incrementAndGet();
+        try {
+            task.run();
+        } finally {
+            runningTasks.decrementAndGet();
+            permits.release();
+        }
+    }
+
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("film-task-", 0).factory());
+        }
+        return executor;
+    }
+
+
+    // Number of tasks submitted but still waiting for a free slot
+    public static int getQueueDepth() { return queuedTasks.get(); }
+
+    public static int getRunningCount() { return runningTasks.get(); }
+
+    public static int getMaxConcurrentTasks() { return MAX_CONCURRENT_TASKS; }
+
+
+    // Called once when the application exits; running tasks get a short grace period
+    public static void shutdown() {
+        ExecutorService toStop;
+        synchronized (TaskExecutorService.class) {
+            toStop = executor;
+            executor = null;
+        }
+        if (toStop == null) {
+            return;
+        }
+
+        toStop.shutdown();
+        try {
+            if (!toStop.awaitTermination(5, TimeUnit.SECONDS)) {
+                toStop.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            toStop.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
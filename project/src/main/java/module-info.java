@@ -2,6 +2,9 @@ module com.example.project {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.sql;
+    requires org.xerial.sqlitejdbc;
+    requires java.management;
+    requires jdk.jfr;
 
     opens com.example.project to javafx.fxml;
     exports com.example.project;
@@ -11,4 +14,8 @@ module com.example.project {
     opens com.example.project.controllers to javafx.fxml;
     exports com.example.project.data;
     opens com.example.project.data to javafx.fxml;
+    exports com.example.project.services;
+    exports com.example.project.io;
+    exports com.example.project.cli;
+    exports com.example.project.metrics;
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.example.project.cli;
+
+import com.example.project.data.DatabaseManager;
+import com.example.project.data.FilmRepository;
+import com.example.project.data.UserRepository;
+import com.example.project.models.Film;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+// Runs FilmCli commands against a new films.db in a temporary directory. DatabaseManager reads its URL
+// once and cannot be reopened after shutdown(), so all tests of this class share one database.
+class FilmCliTest {
+
+    @TempDir
+    static Path directory;
+
+    private static Path database;
+
+
+    @BeforeAll
+    static void createDatabase() throws Exception {
+        database = directory.resolve("films.db");
+        System.setProperty("films.db.url", "jdbc:sqlite:" + database);
+        DatabaseManager.initialize();
+
+        int userId = UserRepository.insert("bob", "not a real hash");
+        FilmRepository.insertAll(userId, List.of(
+                new Film(0, "Both", "Drama, Comedy", 2001, false),
+                new Film(0, "Drama only", "Drama", 2002, false),
+                new Film(0, "Comedy only", "Comedy", 2003, true)));
+    }
+
+
+    @AfterAll
+    static void shutdown() {
+        DatabaseManager.shutdown();
+    }
+
+
+    // --all-genres takes no value, so the path after it is still the file argument
+    @Test
+    void exportWithAllGenresBeforeTheFile() throws Exception {
+        Path file = directory.resolve("all-genres.csv");
+
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = run(err, "--db", database.toString(), "export", "--user", "bob",
+                "--genre", "Drama,Comedy", "--all-genres", file.toString());
+
+        assertEquals(0, exitCode, err.toString(StandardCharsets.UTF_8));
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size(), "header and one film: " + lines);
+        assertTrue(lines.get(1).startsWith("Both,"), lines.get(1));
+    }
+
+
+    @Test
+    void exportWithoutAllGenresMatchesAnyGenre() throws Exception {
+        Path file = directory.resolve("any-genre.csv");
+
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = run(err, "--db", database.toString(), "export", "--user", "bob",
+                "--genre", "Drama,Comedy", file.toString());
+
+        assertEquals(0, exitCode, err.toString(StandardCharsets.UTF_8));
+        assertEquals(4, Files.readAllLines(file).size());
+    }
+
+
+    // Progress and rejected records go to the stream passed to execute(), not to System.err
+    @Test
+    void importReportsRejectedRecordsOnTheGivenStream() throws Exception {
+        Path file = directory.resolve("import.csv");
+        Files.writeString(file, """
+                title,genre,year,watched
+                Imported,Drama,1999,false
+                ,Drama,1999,false
+                """);
+
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = run(err, "--db", database.toString(), "import", "--user", "bob", file.toString());
+
+        String messages = err.toString(StandardCharsets.UTF_8);
+        assertEquals(0, exitCode, messages);
+        assertTrue(messages.contains("Record 3 rejected"), messages);
+        assertTrue(messages.contains("imported 1, rejected 1"), messages);
+    }
+
+
+    @Test
+    void importRejectsUnsupportedFilesAsUsageError() throws Exception {
+        Path file = directory.resolve("films.txt");
+        Files.writeString(file, "Alien,Horror,1979,false\n");
+
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = run(err, "--db", database.toString(), "import", "--user", "bob", file.toString());
+
+        assertEquals(2, exitCode);
+        assertTrue(err.toString(StandardCharsets.UTF_8).startsWith("Unsupported file type: films.txt"));
+    }
+
+
+    private static int run(ByteArrayOutputStream err, String... args) {
+        PrintStream out = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+        return FilmCli.execute(args, out, new PrintStream(err, true, StandardCharsets.UTF_8));
+    }
+}
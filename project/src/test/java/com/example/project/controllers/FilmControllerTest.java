@@ -0,0 +1,29 @@
+package com.example.project.controllers;
+
+import com.example.project.data.FilmWriteQueue;
+import com.example.project.models.ObservableFilm;
+import com.example.project.models.User;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+// The parts of the film screen that work without a JavaFX toolkit
+class FilmControllerTest {
+
+    // A click on a Watched checkbox only sets the film's property; the listener has to queue the write
+    @Test
+    void togglingWatchedQueuesTheFilm() {
+        ObservableFilm film = new ObservableFilm(4242, "Alien", "Horror", 1979, false);
+        film.watchedProperty().addListener(FilmController.watchedWriter(() -> new User(7, "bob", "")));
+
+        int before = FilmWriteQueue.getPendingCount();
+        try {
+            film.setWatched(true);
+            assertEquals(before + 1, FilmWriteQueue.getPendingCount());
+        } finally {
+            FilmWriteQueue.discard(film.getId()); // Nothing to write it to
+        }
+        assertEquals(before, FilmWriteQueue.getPendingCount());
+    }
+}